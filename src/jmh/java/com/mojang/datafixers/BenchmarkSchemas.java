@@ -0,0 +1,156 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.types.templates.TypeTemplate;
+import com.mojang.serialization.Dynamic;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Synthetic schemas shaped like game data: a recursive entity family dispatched on "id", entities holding
+ * lists of items, and one fix per version alternating between item and entity changes.
+ */
+final class BenchmarkSchemas {
+    static final DSL.TypeReference ITEM = () -> "item";
+    static final DSL.TypeReference ENTITY = () -> "entity";
+    static final DSL.TypeReference CHUNK = () -> "chunk";
+
+    static final int ENTITY_KINDS = 16;
+
+    private BenchmarkSchemas() {
+    }
+
+    static String entityId(final int kind) {
+        return "entity_" + kind;
+    }
+
+    /**
+     * Schemas from version 1 to {@code versions}, with a fix for every version after the first.
+     */
+    static DataFixerBuilder builder(final int versions) {
+        final DataFixerBuilder builder = new DataFixerBuilder(versions);
+        builder.addSchema(1, Root::new);
+        for (int version = 2; version <= versions; version++) {
+            final Schema schema = builder.addSchema(version, Schema::new);
+            if (version % 2 == 0) {
+                builder.addFixer(new RenameItemFieldFix(schema, "count_" + version, "count_" + (version + 1)));
+            } else {
+                builder.addFixer(new IncrementEntityFieldFix(schema, entityId(version % ENTITY_KINDS)));
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * A chunk with {@code entities} entities, each carrying a few items and a passenger.
+     */
+    static JsonElement chunk(final int entities) {
+        final JsonArray list = new JsonArray();
+        for (int i = 0; i < entities; i++) {
+            final JsonObject entity = entity(i, 4);
+            final JsonArray passengers = new JsonArray();
+            passengers.add(entity(i + 1, 1));
+            entity.add("Passengers", passengers);
+            list.add(entity);
+        }
+        final JsonObject chunk = new JsonObject();
+        chunk.addProperty("x", 0);
+        chunk.addProperty("z", 0);
+        chunk.add("Entities", list);
+        return chunk;
+    }
+
+    private static JsonObject entity(final int index, final int items) {
+        final JsonObject entity = new JsonObject();
+        entity.addProperty("id", entityId(index % ENTITY_KINDS));
+        entity.addProperty("value", index);
+        final JsonArray list = new JsonArray();
+        for (int i = 0; i < items; i++) {
+            final JsonObject item = new JsonObject();
+            item.addProperty("name", "item_" + i);
+            item.addProperty("count_2", i);
+            list.add(item);
+        }
+        entity.add("Items", list);
+        return entity;
+    }
+
+    private static final class Root extends Schema {
+        private Root(final int versionKey, final Schema parent) {
+            super(versionKey, parent);
+        }
+
+        @Override
+        public void registerTypes(final Schema schema, final Map<String, Supplier<TypeTemplate>> entityTypes, final Map<String, Supplier<TypeTemplate>> blockEntityTypes) {
+            schema.registerType(false, ITEM, DSL::remainder);
+            schema.registerType(true, ENTITY, () -> DSL.taggedChoiceLazy("id", DSL.string(), entityTypes));
+            schema.registerType(false, CHUNK, () -> DSL.optionalFields("Entities", DSL.list(ENTITY.in(schema))));
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            final Map<String, Supplier<TypeTemplate>> entities = new HashMap<>();
+            for (int kind = 0; kind < ENTITY_KINDS; kind++) {
+                schema.register(entities, entityId(kind), name -> DSL.optionalFields(
+                    "Items", DSL.list(ITEM.in(schema)),
+                    "Passengers", DSL.list(ENTITY.in(schema))
+                ));
+            }
+            return entities;
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerBlockEntities(final Schema schema) {
+            return new HashMap<>();
+        }
+    }
+
+    private static final class RenameItemFieldFix extends DataFix {
+        private final String from;
+        private final String to;
+
+        private RenameItemFieldFix(final Schema outputSchema, final String from, final String to) {
+            super(outputSchema, false);
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            return fixTypeEverywhereTyped("RenameItemFieldFix " + from, getInputSchema().getType(ITEM), typed -> typed.update(DSL.remainderFinder(), this::fix));
+        }
+
+        private <T> Dynamic<T> fix(final Dynamic<T> input) {
+            final Optional<Dynamic<T>> value = input.get(from).result();
+            return value.isPresent() ? input.remove(from).set(to, value.get()) : input;
+        }
+    }
+
+    private static final class IncrementEntityFieldFix extends DataFix {
+        private final String entityId;
+
+        private IncrementEntityFieldFix(final Schema outputSchema, final String entityId) {
+            super(outputSchema, false);
+            this.entityId = entityId;
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            final Type<?> choiceType = getInputSchema().getChoiceType(ENTITY, entityId);
+            return fixTypeEverywhereTyped("IncrementEntityFieldFix " + entityId + " " + getVersionKey(), getInputSchema().getType(ENTITY), typed ->
+                typed.updateTyped(DSL.namedChoice(entityId, choiceType), entity ->
+                    entity.update(DSL.remainderFinder(), dynamic -> dynamic.set("value", dynamic.createInt(dynamic.get("value").asInt(0) + 1)))
+                )
+            );
+        }
+    }
+}
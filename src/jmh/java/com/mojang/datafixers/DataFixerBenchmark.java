@@ -0,0 +1,90 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JavaOps;
+import com.mojang.serialization.JsonOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataFixerBenchmark {
+    /**
+     * Steady state: the fixer is built and optimized once, every invocation updates the same chunk.
+     */
+    @State(Scope.Benchmark)
+    public static class Fixed {
+        @Param({"200"})
+        public int versions;
+        @Param({"1", "100"})
+        public int fromVersion;
+
+        DataFixer fixer;
+        JsonElement json;
+        Object java;
+
+        @Setup
+        public void setup() {
+            final DataFixerBuilder.Result result = BenchmarkSchemas.builder(versions).build();
+            result.optimize(Set.of(BenchmarkSchemas.CHUNK), Runnable::run).join();
+            fixer = result.fixer();
+            json = BenchmarkSchemas.chunk(32);
+            java = JsonOps.INSTANCE.convertTo(JavaOps.INSTANCE, json);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Unoptimized {
+        @Param({"200"})
+        public int versions;
+
+        DataFixerBuilder.Result result;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            result = BenchmarkSchemas.builder(versions).build();
+        }
+    }
+
+    @Benchmark
+    public Dynamic<JsonElement> updateJson(final Fixed state) {
+        return state.fixer.update(BenchmarkSchemas.CHUNK, new Dynamic<>(JsonOps.INSTANCE, state.json), state.fromVersion, state.versions);
+    }
+
+    @Benchmark
+    public Dynamic<Object> updateJava(final Fixed state) {
+        return state.fixer.update(BenchmarkSchemas.CHUNK, new Dynamic<>(JavaOps.INSTANCE, state.java), state.fromVersion, state.versions);
+    }
+
+    /**
+     * Rewrites are also cached across fixers, so after the first invocation this mostly measures plan lookup
+     * and the parts of optimization that are not shared.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public Object optimize(final Unoptimized state) {
+        return state.result.optimize(Set.of(BenchmarkSchemas.ITEM, BenchmarkSchemas.ENTITY, BenchmarkSchemas.CHUNK), Runnable::run).join();
+    }
+}
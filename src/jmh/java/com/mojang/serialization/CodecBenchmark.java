@@ -0,0 +1,133 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+    private static final int SIZE = 100;
+
+    static final class Entry {
+        static final Codec<Entry> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("name").forGetter(e -> e.name),
+            Codec.INT.fieldOf("count").forGetter(e -> e.count),
+            Codec.DOUBLE.fieldOf("weight").forGetter(e -> e.weight),
+            Codec.BOOL.optionalFieldOf("enabled", false).forGetter(e -> e.enabled),
+            Codec.STRING.optionalFieldOf("comment").forGetter(e -> e.comment),
+            Codec.INT.listOf().fieldOf("values").forGetter(e -> e.values)
+        ).apply(i, Entry::new));
+
+        final String name;
+        final int count;
+        final double weight;
+        final boolean enabled;
+        final Optional<String> comment;
+        final List<Integer> values;
+
+        Entry(final String name, final int count, final double weight, final boolean enabled, final Optional<String> comment, final List<Integer> values) {
+            this.name = name;
+            this.count = count;
+            this.weight = weight;
+            this.enabled = enabled;
+            this.comment = comment;
+            this.values = values;
+        }
+    }
+
+    private static final Codec<List<Entry>> LIST_CODEC = Entry.CODEC.listOf();
+    private static final Codec<Map<String, Integer>> MAP_CODEC = Codec.unboundedMap(Codec.STRING, Codec.INT);
+
+    @Param({"json", "java", "binary"})
+    public String format;
+
+    private DynamicOps<Object> ops;
+    private Entry entry;
+    private List<Entry> entries;
+    private Map<String, Integer> map;
+    private Object encodedEntry;
+    private Object encodedEntries;
+    private Object encodedMap;
+
+    private static DynamicOps<?> ops(final String format) {
+        switch (format) {
+            case "json":
+                return JsonOps.INSTANCE;
+            case "java":
+                return JavaOps.INSTANCE;
+            case "binary":
+                return BinaryOps.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ops = (DynamicOps<Object>) ops(format);
+        entries = new ArrayList<>(SIZE);
+        map = new LinkedHashMap<>();
+        for (int i = 0; i < SIZE; i++) {
+            entries.add(new Entry("entry_" + i, i, i / 3.0, i % 2 == 0, i % 3 == 0 ? Optional.of("comment " + i) : Optional.empty(), List.of(i, i + 1, i + 2)));
+            map.put("key_" + i, i);
+        }
+        entry = entries.get(0);
+        encodedEntry = Entry.CODEC.encodeStart(ops, entry).getOrThrow();
+        encodedEntries = LIST_CODEC.encodeStart(ops, entries).getOrThrow();
+        encodedMap = MAP_CODEC.encodeStart(ops, map).getOrThrow();
+    }
+
+    @Benchmark
+    public DataResult<Object> encodeRecord() {
+        return Entry.CODEC.encodeStart(ops, entry);
+    }
+
+    @Benchmark
+    public DataResult<Entry> decodeRecord() {
+        return Entry.CODEC.parse(ops, encodedEntry);
+    }
+
+    @Benchmark
+    public DataResult<Object> encodeList() {
+        return LIST_CODEC.encodeStart(ops, entries);
+    }
+
+    @Benchmark
+    public DataResult<List<Entry>> decodeList() {
+        return LIST_CODEC.parse(ops, encodedEntries);
+    }
+
+    @Benchmark
+    public DataResult<Object> encodeMap() {
+        return MAP_CODEC.encodeStart(ops, map);
+    }
+
+    @Benchmark
+    public DataResult<Map<String, Integer>> decodeMap() {
+        return MAP_CODEC.parse(ops, encodedMap);
+    }
+}
@@ -0,0 +1,64 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class OpsConversionBenchmark {
+    @Param({"10", "1000"})
+    public int size;
+
+    private JsonElement json;
+    private Object java;
+
+    @Setup
+    public void setup() {
+        final JsonArray list = new JsonArray();
+        for (int i = 0; i < size; i++) {
+            final JsonObject element = new JsonObject();
+            element.addProperty("name", "element_" + i);
+            element.addProperty("index", i);
+            element.addProperty("ratio", i / 7.0);
+            final JsonArray values = new JsonArray();
+            values.add(i);
+            values.add(-i);
+            element.add("values", values);
+            list.add(element);
+        }
+        final JsonObject root = new JsonObject();
+        root.add("elements", list);
+        json = root;
+        java = JsonOps.INSTANCE.convertTo(JavaOps.INSTANCE, json);
+    }
+
+    @Benchmark
+    public Object jsonToJava() {
+        return JsonOps.INSTANCE.convertTo(JavaOps.INSTANCE, json);
+    }
+
+    @Benchmark
+    public JsonElement javaToJson() {
+        return JavaOps.INSTANCE.convertTo(JsonOps.INSTANCE, java);
+    }
+}
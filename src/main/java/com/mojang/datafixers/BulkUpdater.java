@@ -0,0 +1,310 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.mojang.serialization.Dynamic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link DataFixer#updateBatch} over a stream of entries on an executor.
+ *
+ * The calling thread reads from the source and writes to the sink, while the executor fixes batches of
+ * consecutive entries sharing the same type and version. At most {@code maxPendingBatches} batches are in
+ * flight at any time: when that limit is reached the source is not read again until the oldest batch has
+ * been written, so memory use is bounded by {@code batchSize * maxPendingBatches} entries.
+ * Finished batches are written as soon as the batches before them are, and entries are written in source order.
+ */
+public final class BulkUpdater {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkUpdater.class);
+
+    private final DataFixer fixer;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxPendingBatches;
+
+    public BulkUpdater(final DataFixer fixer, final Executor executor, final int batchSize, final int maxPendingBatches) {
+        if (batchSize <= 0 || maxPendingBatches <= 0) {
+            throw new IllegalArgumentException("Batch size and pending batches must be positive: " + batchSize + ", " + maxPendingBatches);
+        }
+        this.fixer = fixer;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxPendingBatches = maxPendingBatches;
+    }
+
+    public BulkUpdater(final DataFixer fixer) {
+        this(fixer, ForkJoinPool.commonPool(), 256, 2 * ForkJoinPool.getCommonPoolParallelism() + 2);
+    }
+
+    public <K, T> Report run(final Iterator<Entry<K, T>> source, final int newVersion, final Consumer<Entry<K, T>> sink) {
+        return run(source, newVersion, sink, (entry, e) -> LOGGER.error("Failed to update {} of type {}", entry.key(), entry.type().typeName(), e));
+    }
+
+    /**
+     * Updates every entry of the source to {@code newVersion} and passes the result to the sink.
+     * Entries whose fix throws are passed to {@code onFailure} instead of the sink.
+     */
+    public <K, T> Report run(final Iterator<Entry<K, T>> source, final int newVersion, final Consumer<Entry<K, T>> sink, final BiConsumer<Entry<K, T>, Throwable> onFailure) {
+        final long started = System.nanoTime();
+        final Stats stats = new Stats();
+        final ArrayDeque<CompletableFuture<Batch<K, T>>> pending = new ArrayDeque<>(maxPendingBatches);
+
+        List<Entry<K, T>> batch = new ArrayList<>(batchSize);
+        while (source.hasNext()) {
+            final Entry<K, T> entry = source.next();
+            if (!batch.isEmpty() && (batch.size() >= batchSize || !batch.get(0).isSameBatch(entry))) {
+                submit(batch, newVersion, stats, pending, sink, onFailure);
+                batch = new ArrayList<>(batchSize);
+            }
+            batch.add(entry);
+        }
+        if (!batch.isEmpty()) {
+            submit(batch, newVersion, stats, pending, sink, onFailure);
+        }
+        while (!pending.isEmpty()) {
+            write(pending.removeFirst(), stats, sink, onFailure);
+        }
+
+        return stats.report(Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private <K, T> void submit(final List<Entry<K, T>> entries, final int newVersion, final Stats stats, final ArrayDeque<CompletableFuture<Batch<K, T>>> pending, final Consumer<Entry<K, T>> sink, final BiConsumer<Entry<K, T>, Throwable> onFailure) {
+        // write whatever has finished, so the sink sees entries as soon as they are ready rather than in bursts
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            write(pending.removeFirst(), stats, sink, onFailure);
+        }
+        if (pending.size() >= maxPendingBatches) {
+            write(pending.removeFirst(), stats, sink, onFailure);
+        }
+        pending.addLast(CompletableFuture.supplyAsync(() -> fix(entries, newVersion, stats), executor));
+    }
+
+    private <K, T> Batch<K, T> fix(final List<Entry<K, T>> entries, final int newVersion, final Stats stats) {
+        final Entry<K, T> first = entries.get(0);
+        final long started = System.nanoTime();
+        final List<Dynamic<T>> inputs = new ArrayList<>(entries.size());
+        for (final Entry<K, T> entry : entries) {
+            inputs.add(entry.value());
+        }
+
+        final Object[] results = new Object[entries.size()];
+        try {
+            final List<Dynamic<T>> outputs = fixer.updateBatch(first.type(), inputs, first.version(), newVersion);
+            for (int i = 0; i < results.length; i++) {
+                results[i] = entries.get(i).withValue(outputs.get(i), newVersion);
+            }
+        } catch (final RuntimeException batchFailure) {
+            // isolate the entries that actually fail
+            for (int i = 0; i < results.length; i++) {
+                final Entry<K, T> entry = entries.get(i);
+                try {
+                    results[i] = entry.withValue(fixer.update(entry.type(), entry.value(), entry.version(), newVersion), newVersion);
+                } catch (final RuntimeException e) {
+                    results[i] = e;
+                }
+            }
+        }
+
+        stats.recordBatch(first.type().typeName(), entries.size(), System.nanoTime() - started);
+        return new Batch<>(entries, results);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, T> void write(final CompletableFuture<Batch<K, T>> future, final Stats stats, final Consumer<Entry<K, T>> sink, final BiConsumer<Entry<K, T>, Throwable> onFailure) {
+        final Batch<K, T> batch;
+        try {
+            batch = future.join();
+        } catch (final CompletionException e) {
+            throw new IllegalStateException("Bulk update task failed", e.getCause());
+        }
+        for (int i = 0; i < batch.results.length; i++) {
+            final Object result = batch.results[i];
+            if (result instanceof Throwable) {
+                stats.failures.increment();
+                onFailure.accept(batch.entries.get(i), (Throwable) result);
+            } else {
+                sink.accept((Entry<K, T>) result);
+            }
+        }
+    }
+
+    private static final class Batch<K, T> {
+        private final List<Entry<K, T>> entries;
+        // either the updated entry or the exception thrown while updating it
+        private final Object[] results;
+
+        private Batch(final List<Entry<K, T>> entries, final Object[] results) {
+            this.entries = entries;
+            this.results = results;
+        }
+    }
+
+    public static final class Entry<K, T> {
+        private final K key;
+        private final DSL.TypeReference type;
+        private final int version;
+        private final Dynamic<T> value;
+
+        public Entry(final K key, final DSL.TypeReference type, final int version, final Dynamic<T> value) {
+            this.key = key;
+            this.type = type;
+            this.version = version;
+            this.value = value;
+        }
+
+        public K key() {
+            return key;
+        }
+
+        public DSL.TypeReference type() {
+            return type;
+        }
+
+        public int version() {
+            return version;
+        }
+
+        public Dynamic<T> value() {
+            return value;
+        }
+
+        public Entry<K, T> withValue(final Dynamic<T> value, final int version) {
+            return new Entry<>(key, type, version, value);
+        }
+
+        private boolean isSameBatch(final Entry<?, ?> other) {
+            return version == other.version && type.typeName().equals(other.type.typeName()) && value.getOps() == other.value.getOps();
+        }
+
+        @Override
+        public String toString() {
+            return "Entry[" + key + ", " + type.typeName() + ", " + version + "]";
+        }
+    }
+
+    private static final class Stats {
+        private final LongAdder failures = new LongAdder();
+        private final Map<String, TypeCounters> types = Maps.newConcurrentMap();
+
+        private void recordBatch(final String typeName, final int count, final long nanos) {
+            final TypeCounters counters = types.computeIfAbsent(typeName, k -> new TypeCounters());
+            counters.count.add(count);
+            counters.nanos.add(nanos);
+            counters.maxBatchNanos.accumulate(nanos);
+        }
+
+        private Report report(final Duration elapsed) {
+            final ImmutableMap.Builder<String, TypeReport> builder = ImmutableMap.builder();
+            long records = 0;
+            for (final Map.Entry<String, TypeCounters> entry : types.entrySet()) {
+                final TypeCounters counters = entry.getValue();
+                records += counters.count.sum();
+                builder.put(entry.getKey(), new TypeReport(counters.count.sum(), Duration.ofNanos(counters.nanos.sum()), Duration.ofNanos(counters.maxBatchNanos.get())));
+            }
+            return new Report(records, failures.sum(), elapsed, builder.build());
+        }
+    }
+
+    private static final class TypeCounters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxBatchNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    public static final class Report {
+        private final long records;
+        private final long failures;
+        private final Duration elapsed;
+        private final Map<String, TypeReport> types;
+
+        public Report(final long records, final long failures, final Duration elapsed, final Map<String, TypeReport> types) {
+            this.records = records;
+            this.failures = failures;
+            this.elapsed = elapsed;
+            this.types = types;
+        }
+
+        /**
+         * number of entries read from the source, including failed ones
+         */
+        public long records() {
+            return records;
+        }
+
+        public long failures() {
+            return failures;
+        }
+
+        public Duration elapsed() {
+            return elapsed;
+        }
+
+        public double recordsPerSecond() {
+            final long nanos = elapsed.toNanos();
+            return nanos == 0 ? 0 : records * 1_000_000_000.0 / nanos;
+        }
+
+        public Map<String, TypeReport> types() {
+            return types;
+        }
+
+        @Override
+        public String toString() {
+            return "Report[" + records + " records, " + failures + " failures, " + elapsed.toMillis() + " ms, " + types + "]";
+        }
+    }
+
+    public static final class TypeReport {
+        private final long records;
+        private final Duration fixTime;
+        private final Duration maxBatchTime;
+
+        public TypeReport(final long records, final Duration fixTime, final Duration maxBatchTime) {
+            this.records = records;
+            this.fixTime = fixTime;
+            this.maxBatchTime = maxBatchTime;
+        }
+
+        public long records() {
+            return records;
+        }
+
+        /**
+         * total time spent fixing entries of this type, summed over all worker threads
+         */
+        public Duration fixTime() {
+            return fixTime;
+        }
+
+        public Duration maxBatchTime() {
+            return maxBatchTime;
+        }
+
+        public Duration meanLatency() {
+            return records == 0 ? Duration.ZERO : fixTime.dividedBy(records);
+        }
+
+        @Override
+        public String toString() {
+            return "TypeReport[" + records + " records, " + meanLatency().toNanos() + " ns/record]";
+        }
+    }
+}
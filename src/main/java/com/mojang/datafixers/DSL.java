@@ -30,6 +30,7 @@ import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -110,7 +111,7 @@ public interface DSL {
     }
 
     static <K, V> CompoundList.CompoundListType<K, V> compoundList(final Type<K> key, final Type<V> value) {
-        return new CompoundList.CompoundListType<>(key, value);
+        return Type.intern(new CompoundList.CompoundListType<>(key, value));
     }
 
     static TypeTemplate constType(final Type<?> type) {
@@ -122,7 +123,7 @@ public interface DSL {
     }
 
     static <A> Type<A> hook(final Type<A> type, final Hook.HookFunction preRead, final Hook.HookFunction postWrite) {
-        return new Hook.HookType<>(type, preRead, postWrite);
+        return Type.intern(new Hook.HookType<>(type, preRead, postWrite));
     }
 
     static TypeTemplate list(final TypeTemplate element) {
@@ -130,7 +131,7 @@ public interface DSL {
     }
 
     static <A> List.ListType<A> list(final Type<A> first) {
-        return new List.ListType<>(first);
+        return Type.intern(new List.ListType<>(first));
     }
 
     static TypeTemplate named(final String name, final TypeTemplate element) {
@@ -138,7 +139,7 @@ public interface DSL {
     }
 
     static <A> Type<Pair<String, A>> named(final String name, final Type<A> element) {
-        return new Named.NamedType<>(name, element);
+        return Type.intern(new Named.NamedType<>(name, element));
     }
 
     static TypeTemplate and(final TypeTemplate first, final TypeTemplate second) {
@@ -175,7 +176,7 @@ public interface DSL {
     }
 
     static <F, G> Type<Pair<F, G>> and(final Type<F> first, final Type<G> second) {
-        return new Product.ProductType<>(first, second);
+        return Type.intern(new Product.ProductType<>(first, second));
     }
 
     static <F, G, H> Type<Pair<F, Pair<G, H>>> and(final Type<F> first, final Type<G> second, final Type<H> third) {
@@ -195,7 +196,7 @@ public interface DSL {
     }
 
     static <F, G> Type<Either<F, G>> or(final Type<F> first, final Type<G> second) {
-        return new Sum.SumType<>(first, second);
+        return Type.intern(new Sum.SumType<>(first, second));
     }
 
     static TypeTemplate field(final String name, final TypeTemplate element) {
@@ -203,7 +204,7 @@ public interface DSL {
     }
 
     static <A> Tag.TagType<A> field(final String name, final Type<A> element) {
-        return new Tag.TagType<>(name, element);
+        return Type.intern(new Tag.TagType<>(name, element));
     }
 
     static <K> TaggedChoice<K> taggedChoice(final String name, final Type<K> keyType, final Map<K, TypeTemplate> templates) {
@@ -220,7 +221,7 @@ public interface DSL {
     }
 
     static <A, B> Type<Function<A, B>> func(final Type<A> input, final Type<B> output) {
-        return new Func<>(input, output);
+        return Type.intern(new Func<>(input, output));
     }
 
     // Helpers
@@ -504,8 +505,25 @@ public interface DSL {
                 return types;
             }
 
+            @Override
+            public boolean equals(final Object obj) {
+                if (obj == this) {
+                    return true;
+                }
+                if (obj == null || obj.getClass() != getClass()) {
+                    return false;
+                }
+                final TaggedChoiceCacheKey<?> that = (TaggedChoiceCacheKey<?>) obj;
+                return Objects.equals(name, that.name) && Objects.equals(keyType, that.keyType) && Objects.equals(types, that.types);
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(name, keyType, types);
+            }
+
             public TaggedChoice.TaggedChoiceType<K> build() {
-                return new TaggedChoice.TaggedChoiceType<>(name, keyType, new Object2ObjectOpenHashMap<>(types));
+                return Type.intern(new TaggedChoice.TaggedChoiceType<>(name, keyType, new Object2ObjectOpenHashMap<>(types)));
             }
         }
     }
@@ -23,7 +23,7 @@ public abstract class DataFix {
     private final Schema outputSchema;
     private final boolean changesType;
     @Nullable
-    private TypeRewriteRule rule;
+    private volatile TypeRewriteRule rule;
 
     public DataFix(final Schema outputSchema, final boolean changesType) {
         this.outputSchema = outputSchema;
@@ -115,8 +115,16 @@ public abstract class DataFix {
     }
 
     public TypeRewriteRule getRule() {
+        TypeRewriteRule rule = this.rule;
         if (rule == null) {
-            rule = makeRule();
+            // rules of different version ranges are built concurrently, but each fix only makes its rule once
+            synchronized (this) {
+                rule = this.rule;
+                if (rule == null) {
+                    rule = makeRule();
+                    this.rule = rule;
+                }
+            }
         }
         return rule;
     }
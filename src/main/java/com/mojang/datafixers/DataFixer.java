@@ -5,8 +5,24 @@ package com.mojang.datafixers;
 import com.mojang.datafixers.schemas.Schema;
 import com.mojang.serialization.Dynamic;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface DataFixer {
     <T> Dynamic<T> update(DSL.TypeReference type, Dynamic<T> input, int version, int newVersion);
 
+    /**
+     * Updates many inputs of the same type and version range, results are returned in input order.
+     * The returned list is always a new, mutable list, even when nothing was updated.
+     * Implementations may resolve the rewrite once for the whole batch instead of once per input.
+     */
+    default <T> List<Dynamic<T>> updateBatch(final DSL.TypeReference type, final List<Dynamic<T>> inputs, final int version, final int newVersion) {
+        final List<Dynamic<T>> result = new ArrayList<>(inputs.size());
+        for (final Dynamic<T> input : inputs) {
+            result.add(update(type, input, version, newVersion));
+        }
+        return result;
+    }
+
     Schema getSchema(int key);
 }
@@ -4,6 +4,7 @@ package com.mojang.datafixers;
 
 import com.mojang.datafixers.schemas.Schema;
 import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.util.Pair;
 import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
 import it.unimi.dsi.fastutil.ints.IntAVLTreeSet;
@@ -12,6 +13,9 @@ import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -69,15 +73,64 @@ public class DataFixerBuilder {
 
     public class Result {
         private final DataFixerUpper fixerUpper;
+        private final UpdateProfile profile;
+        private final Int2ObjectSortedMap<Schema> builtSchemas;
+        private final List<DataFix> builtFixes;
+        @Nullable
+        private volatile String fingerprint;
 
         public Result(final DataFixerUpper fixerUpper) {
             this.fixerUpper = fixerUpper;
+            profile = new UpdateProfile(dataVersion);
+            builtSchemas = new Int2ObjectAVLTreeMap<>(schemas);
+            builtFixes = new ArrayList<>(globalList);
+        }
+
+        private String fingerprint() {
+            String result = fingerprint;
+            if (result == null) {
+                result = UpdateProfile.fingerprint(builtSchemas, builtFixes, dataVersion);
+                fingerprint = result;
+            }
+            return result;
         }
 
         public DataFixer fixer() {
             return fixerUpper;
         }
 
+        /**
+         * Starts counting the types and versions updates to the data version are called with, to be saved with {@link #saveProfile(Path)}.
+         */
+        public void recordProfile() {
+            fixerUpper.setProfile(profile);
+        }
+
+        /**
+         * Loads the counts saved by a previous run with the same schemas and fixes. Once loaded, {@link #optimize(Set, Executor)}
+         * only optimizes the types and versions that were updated, the most frequent first.
+         * Returns false if the file is missing, unreadable or was written for different schemas or fixes.
+         */
+        public boolean loadProfile(final Path path) {
+            return profile.load(path, fingerprint());
+        }
+
+        /**
+         * Saves the loaded counts together with the ones recorded since {@link #recordProfile()}.
+         */
+        public void saveProfile(final Path path) throws IOException {
+            profile.save(path, fingerprint());
+        }
+
+        /**
+         * Optimizes rewrites on {@code executor} as they are first needed, instead of on the updating thread.
+         * Until a rewrite is optimized, updates use it unoptimized, which is slower per value but needs no optimization pass.
+         * Rewrites already optimized, for example by {@link #optimize(Set, Executor)}, are used as they are.
+         */
+        public void optimizeInBackground(final Executor executor) {
+            fixerUpper.setOptimizationExecutor(executor);
+        }
+
         public CompletableFuture<?> optimize(final Set<DSL.TypeReference> requiredTypes, final Executor executor) {
             final Instant started = Instant.now();
             final List<CompletableFuture<?>> doneFutures = new ArrayList<>();
@@ -85,28 +138,26 @@ public class DataFixerBuilder {
 
             final Set<String> requiredTypeNames = requiredTypes.stream().map(DSL.TypeReference::typeName).collect(Collectors.toSet());
 
-            final IntIterator iterator = fixerUpper.fixerVersions().iterator();
-            while (iterator.hasNext()) {
-                final int versionKey = iterator.nextInt();
-                final Schema schema = schemas.get(versionKey);
-                for (final String typeName : schema.types()) {
-                    if (!requiredTypeNames.contains(typeName)) {
-                        continue;
-                    }
-                    final CompletableFuture<Void> doneFuture = CompletableFuture.runAsync(() -> {
-                        final Type<?> dataType = schema.getType(() -> typeName);
-                        final TypeRewriteRule rule = fixerUpper.getRule(DataFixUtils.getVersion(versionKey), dataVersion);
-                        dataType.rewrite(rule, DataFixerUpper.OPTIMIZATION_RULE);
-                    }, executor);
-                    doneFutures.add(doneFuture);
-
-                    final CompletableFuture<?> failFuture = new CompletableFuture<>();
-                    doneFuture.exceptionally(e -> {
-                        failFuture.completeExceptionally(e);
-                        return null;
-                    });
-                    failFutures.add(failFuture);
+            for (final Pair<String, Integer> pair : profile.isLoaded() ? profile.hottest(requiredTypeNames) : fixerVersionPairs(requiredTypeNames)) {
+                final String typeName = pair.getFirst();
+                final int version = pair.getSecond();
+                // updates of pairs nothing touches never look up a rewrite
+                if (!fixerUpper.isTouched(() -> typeName, version, dataVersion)) {
+                    continue;
                 }
+                final CompletableFuture<Void> doneFuture = CompletableFuture.runAsync(() -> {
+                    // Resolve the plan under the same key DataFixerUpper.update looks it up with
+                    final Type<?> dataType = fixerUpper.getType(() -> typeName, version);
+                    dataType.rewrite(fixerUpper.getRule(version, dataVersion), DataFixerUpper.OPTIMIZATION_RULE);
+                }, executor);
+                doneFutures.add(doneFuture);
+
+                final CompletableFuture<?> failFuture = new CompletableFuture<>();
+                doneFuture.exceptionally(e -> {
+                    failFuture.completeExceptionally(e);
+                    return null;
+                });
+                failFutures.add(failFuture);
             }
 
             final CompletableFuture<?> doneFuture = CompletableFuture.allOf(doneFutures.toArray(CompletableFuture[]::new)).thenAccept(ignored -> {
@@ -117,5 +168,20 @@ public class DataFixerBuilder {
 
             return CompletableFuture.anyOf(doneFuture, failFuture);
         }
+
+        private List<Pair<String, Integer>> fixerVersionPairs(final Set<String> typeNames) {
+            final List<Pair<String, Integer>> pairs = new ArrayList<>();
+            final IntIterator iterator = fixerUpper.fixerVersions().iterator();
+            while (iterator.hasNext()) {
+                final int versionKey = iterator.nextInt();
+                final Schema schema = schemas.get(versionKey);
+                for (final String typeName : schema.types()) {
+                    if (typeNames.contains(typeName)) {
+                        pairs.add(Pair.of(typeName, DataFixUtils.getVersion(versionKey)));
+                    }
+                }
+            }
+            return pairs;
+        }
     }
 }
@@ -2,21 +2,31 @@
 // Licensed under the MIT license.
 package com.mojang.datafixers;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.mojang.datafixers.functions.PointFreeRule;
 import com.mojang.datafixers.schemas.Schema;
 import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.DynamicOps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /*
  * Optimizing functions
@@ -63,25 +73,103 @@ public class DataFixerUpper implements DataFixer {
     private final Int2ObjectSortedMap<Schema> schemas;
     private final List<DataFix> globalList;
     private final IntSortedSet fixerVersions;
-    private final Long2ObjectMap<TypeRewriteRule> rules = Long2ObjectMaps.synchronize(new Long2ObjectOpenHashMap<>());
+    private final Map<Long, CompletableFuture<TypeRewriteRule>> rules = new ConcurrentHashMap<>();
+    private final FixIndex fixIndex;
+    @Nullable
+    private volatile Executor optimizationExecutor;
+    @Nullable
+    private volatile UpdateProfile profile;
+    private final Set<Pair<Type<?>, TypeRewriteRule>> pendingOptimizations = Sets.newConcurrentHashSet();
 
     protected DataFixerUpper(final Int2ObjectSortedMap<Schema> schemas, final List<DataFix> globalList, final IntSortedSet fixerVersions) {
         this.schemas = schemas;
         this.globalList = globalList;
         this.fixerVersions = fixerVersions;
+        fixIndex = new FixIndex(schemas, globalList);
     }
 
     @Override
     public <T> Dynamic<T> update(final DSL.TypeReference type, final Dynamic<T> input, final int version, final int newVersion) {
         if (version < newVersion) {
+            if (!isTouched(type, version, newVersion)) {
+                return input;
+            }
+            record(type, version, newVersion, 1);
             final Type<?> dataType = getType(type, version);
-            final DataResult<T> read = dataType.readAndWrite(input.getOps(), getType(type, newVersion), getRule(version, newVersion), OPTIMIZATION_RULE, input.getValue());
+            final TypeRewriteRule rule = getRule(version, newVersion);
+            final DataResult<T> read = dataType.readAndWrite(input.getOps(), getType(type, newVersion), rule, optimizationRule(dataType, rule), input.getValue());
             final T result = read.resultOrPartial(LOGGER::error).orElse(input.getValue());
             return new Dynamic<>(input.getOps(), result);
         }
         return input;
     }
 
+    @Override
+    public <T> List<Dynamic<T>> updateBatch(final DSL.TypeReference type, final List<Dynamic<T>> inputs, final int version, final int newVersion) {
+        if (version >= newVersion || inputs.isEmpty() || !isTouched(type, version, newVersion)) {
+            // always a fresh list, like the updated one, so callers can change it without touching their inputs
+            return new ArrayList<>(inputs);
+        }
+        record(type, version, newVersion, inputs.size());
+        final Type<?> dataType = getType(type, version);
+        final Type<?> newType = getType(type, newVersion);
+        final TypeRewriteRule rule = getRule(version, newVersion);
+        final PointFreeRule fRule = optimizationRule(dataType, rule);
+
+        final List<Dynamic<T>> result = new ArrayList<>(inputs.size());
+        DynamicOps<T> ops = null;
+        Function<T, DataResult<T>> function = null;
+        for (final Dynamic<T> input : inputs) {
+            // all inputs normally share the same ops, only resolve again when that is not the case
+            if (input.getOps() != ops) {
+                ops = input.getOps();
+                function = dataType.readAndWriteFunction(ops, newType, rule, fRule).resultOrPartial(LOGGER::error).orElse(null);
+            }
+            if (function == null) {
+                result.add(input);
+                continue;
+            }
+            final T value = function.apply(input.getValue()).resultOrPartial(LOGGER::error).orElse(input.getValue());
+            result.add(value == input.getValue() ? input : new Dynamic<>(ops, value));
+        }
+        return result;
+    }
+
+    /**
+     * The rule to optimize the rewrite of {@code type} by {@code rule} with.
+     * Without an optimization executor, this always is {@link #OPTIMIZATION_RULE}, optimizing on the calling thread if needed.
+     * With one, rewrites that were not optimized yet are used unoptimized while the executor optimizes them,
+     * later updates pick the optimized rewrite up once it is done.
+     */
+    private PointFreeRule optimizationRule(final Type<?> type, final TypeRewriteRule rule) {
+        final Executor executor = optimizationExecutor;
+        if (executor == null || type.isRewriteCached(rule, OPTIMIZATION_RULE)) {
+            return OPTIMIZATION_RULE;
+        }
+        final Pair<Type<?>, TypeRewriteRule> key = Pair.of(type, rule);
+        if (pendingOptimizations.add(key)) {
+            CompletableFuture.runAsync(() -> type.rewrite(rule, OPTIMIZATION_RULE), executor).whenComplete((ignored, e) -> {
+                // an optimized rewrite evicted from the cache later is scheduled again
+                pendingOptimizations.remove(key);
+                if (e != null) {
+                    LOGGER.error("Failed to optimize rewrite of {}", type, e);
+                }
+            });
+        }
+        return PointFreeRule.nop();
+    }
+
+    private void record(final DSL.TypeReference type, final int version, final int newVersion, final int count) {
+        final UpdateProfile profile = this.profile;
+        if (profile != null) {
+            profile.record(type.typeName(), version, newVersion, count);
+        }
+    }
+
+    boolean isTouched(final DSL.TypeReference type, final int version, final int newVersion) {
+        return fixIndex.isTouched(type, version, newVersion);
+    }
+
     @Override
     public Schema getSchema(final int key) {
         return schemas.get(getLowestSchemaSameVersion(schemas, key));
@@ -113,24 +201,62 @@ public class DataFixerUpper implements DataFixer {
         }
 
         final long key = (long) version << 32 | newVersion;
-        return rules.computeIfAbsent(key, k -> {
-            final int expandedVersion = getLowestFixSameVersion(DataFixUtils.makeKey(version));
-
-            final List<TypeRewriteRule> rules = Lists.newArrayList();
-            for (final DataFix fix : globalList) {
-                final int expandedFixVersion = fix.getVersionKey();
-                final int fixVersion = DataFixUtils.getVersion(expandedFixVersion);
-                if (expandedFixVersion > expandedVersion && fixVersion <= newVersion) {
-                    final TypeRewriteRule fixRule = fix.getRule();
-                    if (fixRule == TypeRewriteRule.nop()) {
-                        continue;
-                    }
-                    rules.add(fixRule);
+        final CompletableFuture<TypeRewriteRule> existing = rules.get(key);
+        if (existing != null) {
+            return join(existing);
+        }
+        // The first thread to ask for a pair builds its rule outside of any lock, others asking for the same pair wait for that one
+        final CompletableFuture<TypeRewriteRule> future = new CompletableFuture<>();
+        final CompletableFuture<TypeRewriteRule> raced = rules.putIfAbsent(key, future);
+        if (raced != null) {
+            return join(raced);
+        }
+        try {
+            final TypeRewriteRule rule = buildRule(version, newVersion);
+            future.complete(rule);
+            return rule;
+        } catch (final Throwable e) {
+            // don't cache failures, the next lookup tries again
+            rules.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static TypeRewriteRule join(final CompletableFuture<TypeRewriteRule> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    private TypeRewriteRule buildRule(final int version, final int newVersion) {
+        final int expandedVersion = getLowestFixSameVersion(DataFixUtils.makeKey(version));
+
+        final List<TypeRewriteRule> rules = Lists.newArrayList();
+        for (final DataFix fix : globalList) {
+            final int expandedFixVersion = fix.getVersionKey();
+            final int fixVersion = DataFixUtils.getVersion(expandedFixVersion);
+            if (expandedFixVersion > expandedVersion && fixVersion <= newVersion) {
+                final TypeRewriteRule fixRule = fix.getRule();
+                if (fixRule == TypeRewriteRule.nop()) {
+                    continue;
                 }
+                rules.add(fixRule);
             }
+        }
+
+        return TypeRewriteRule.seq(rules);
+    }
+
+    void setProfile(@Nullable final UpdateProfile profile) {
+        this.profile = profile;
+    }
 
-            return TypeRewriteRule.seq(rules);
-        });
+    void setOptimizationExecutor(@Nullable final Executor optimizationExecutor) {
+        this.optimizationExecutor = optimizationExecutor;
     }
 
     protected IntSortedSet fixerVersions() {
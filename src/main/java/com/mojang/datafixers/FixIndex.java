@@ -0,0 +1,238 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.common.collect.Maps;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.types.families.RecursiveTypeFamily;
+import com.mojang.datafixers.types.templates.RecursivePoint;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Records, per type, which fixes can affect it, so that updates across a version range that nothing touches can skip
+ * building and looking up a rewrite entirely.
+ *
+ * A fix touches a type if its rule rewrites the type of its input schema to anything but a nop. An update across a range
+ * only reads the type from the schema of the old version, runs it through the fixes of the range and writes it with the
+ * type of the schema of the new version, so if none of the fixes touches the type and all of those schemas agree on it,
+ * data of that type is passed through unchanged. Schemas in the range that neither of these uses are not looked at,
+ * and so are not materialized.
+ *
+ * Schemas agree on a type if their types have the same shape. Every schema builds its own recursive type family, and
+ * types from different families never compare equal, so recursion points are compared by index, and the families of
+ * the two schemas are compared the same way, once per pair of schemas.
+ * Entries are computed lazily, the first time a type is queried across the range in question.
+ */
+final class FixIndex {
+    private static final byte UNKNOWN = 0;
+    private static final byte UNTOUCHED = 1;
+    private static final byte TOUCHED = 2;
+    private static final Object MISSING = new Object();
+
+    private final Schema[] schemas;
+    private final int[] schemaKeys;
+    private final DataFix[] fixes;
+    private final int[] fixKeys;
+    // index of the input schema of each fix, -1 if it is not one of the schemas
+    private final int[] fixSchemas;
+    private final Map<String, TypeEntry> types = Maps.newConcurrentMap();
+    // racy, but computing a family twice gives the same result
+    private final Object[] families;
+    private final Map<Long, Boolean> sameFamilies = Maps.newConcurrentMap();
+
+    FixIndex(final Int2ObjectSortedMap<Schema> schemas, final List<DataFix> fixes) {
+        this.schemas = schemas.values().toArray(new Schema[0]);
+        schemaKeys = schemas.keySet().toIntArray();
+        this.fixes = fixes.stream().sorted(Comparator.comparingInt(DataFix::getVersionKey)).toArray(DataFix[]::new);
+        fixKeys = Arrays.stream(this.fixes).mapToInt(DataFix::getVersionKey).toArray();
+        fixSchemas = Arrays.stream(this.fixes).mapToInt(fix -> indexOf(this.schemas, fix.getInputSchema())).toArray();
+        families = new Object[this.schemas.length];
+    }
+
+    private static int indexOf(final Schema[] schemas, final Schema schema) {
+        for (int i = 0; i < schemas.length; i++) {
+            if (schemas[i] == schema) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether any fix or schema applied when updating data of the given type from {@code version} to {@code newVersion} can change it.
+     */
+    boolean isTouched(final DSL.TypeReference type, final int version, final int newVersion) {
+        final TypeEntry entry = types.computeIfAbsent(type.typeName(), TypeEntry::new);
+        final long range = (long) version << 32 | newVersion;
+        final Boolean touched = entry.ranges.get(range);
+        if (touched != null) {
+            return touched;
+        }
+        final boolean result = computeTouched(entry, version, newVersion);
+        entry.ranges.put(range, result);
+        return result;
+    }
+
+    private boolean computeTouched(final TypeEntry entry, final int version, final int newVersion) {
+        // same schemas as DataFixerUpper.getType
+        final int schema = schemaAt(DataFixUtils.makeKey(version));
+        if (!entry.isSameType(schema, schemaAt(DataFixUtils.makeKey(newVersion)))) {
+            return true;
+        }
+
+        // same range as DataFixerUpper.getRule: keys after the version, up to and including all sub versions of the new version
+        final int fromKey = DataFixUtils.makeKey(version);
+        final int toKey = DataFixUtils.makeKey(newVersion + 1);
+        for (int i = firstKeyAfter(fixKeys, fromKey); i < fixKeys.length && fixKeys[i] < toKey; i++) {
+            // the rule of the fix is checked against its input schema, so that schema has to agree with the data as read
+            if (fixSchemas[i] < 0 || !entry.isSameType(schema, fixSchemas[i]) || entry.fixTouches(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the types of two schemas have the same shape, recursion points are compared by index only.
+     */
+    private boolean isSameShape(final int first, final int second, final Type<?> firstType, final Type<?> secondType) {
+        if (firstType.equals(secondType)) {
+            return true;
+        }
+        return firstType.equals(secondType, true, true) && isSameFamily(first, second);
+    }
+
+    private boolean isSameFamily(final int first, final int second) {
+        final long key = (long) Math.min(first, second) << 32 | Math.max(first, second);
+        final Boolean same = sameFamilies.get(key);
+        if (same != null) {
+            return same;
+        }
+        final boolean result = computeSameFamily(familyAt(first), familyAt(second));
+        sameFamilies.put(key, result);
+        return result;
+    }
+
+    private static boolean computeSameFamily(@Nullable final RecursiveTypeFamily first, @Nullable final RecursiveTypeFamily second) {
+        if (first == null || second == null) {
+            return first == second;
+        }
+        if (first.equals(second)) {
+            return true;
+        }
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (!first.apply(i).unfold().equals(second.apply(i).unfold(), true, true)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The recursive family the types of a schema are built from, all recursive types of a schema share it.
+     */
+    @Nullable
+    private RecursiveTypeFamily familyAt(final int index) {
+        Object family = families[index];
+        if (family == null) {
+            family = MISSING;
+            final Schema schema = schemas[index];
+            for (final String name : schema.types()) {
+                final Type<?> type = schema.getTypeRaw(() -> name);
+                if (type instanceof RecursivePoint.RecursivePointType<?>) {
+                    family = ((RecursivePoint.RecursivePointType<?>) type).family();
+                    break;
+                }
+            }
+            families[index] = family;
+        }
+        return family == MISSING ? null : (RecursiveTypeFamily) family;
+    }
+
+    /**
+     * Index of the last schema at or before the key, like {@link DataFixerUpper#getLowestSchemaSameVersion}.
+     */
+    private int schemaAt(final int key) {
+        final int index = Arrays.binarySearch(schemaKeys, key);
+        if (index >= 0) {
+            return index;
+        }
+        return Math.max(0, -index - 2);
+    }
+
+    private static int firstKeyAfter(final int[] keys, final int key) {
+        int index = Arrays.binarySearch(keys, key + 1);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // fixes can share a key, find the first one
+        while (index > 0 && keys[index - 1] == keys[index]) {
+            index--;
+        }
+        return index;
+    }
+
+    private final class TypeEntry {
+        private final String typeName;
+        // racy, but computing an entry twice gives the same result
+        private final Object[] schemaTypes = new Object[schemas.length];
+        private final byte[] fixStates = new byte[fixes.length];
+        private final Map<Long, Boolean> ranges = Maps.newConcurrentMap();
+
+        private TypeEntry(final String typeName) {
+            this.typeName = typeName;
+        }
+
+        private boolean isSameType(final int first, final int second) {
+            if (first == second) {
+                return true;
+            }
+            final Object firstType = typeAt(first);
+            final Object secondType = typeAt(second);
+            return firstType != MISSING && secondType != MISSING && isSameShape(first, second, (Type<?>) firstType, (Type<?>) secondType);
+        }
+
+        private Object typeAt(final int index) {
+            Object type = schemaTypes[index];
+            if (type == null) {
+                final Schema schema = schemas[index];
+                type = schema.types().contains(typeName) ? schema.getTypeRaw(() -> typeName) : MISSING;
+                schemaTypes[index] = type;
+            }
+            return type;
+        }
+
+        private boolean fixTouches(final int index) {
+            byte state = fixStates[index];
+            if (state == UNKNOWN) {
+                state = computeFixTouches(fixes[index], fixSchemas[index]) ? TOUCHED : UNTOUCHED;
+                fixStates[index] = state;
+            }
+            return state == TOUCHED;
+        }
+
+        private boolean computeFixTouches(final DataFix fix, final int inputSchema) {
+            final Object type = typeAt(inputSchema);
+            if (type == MISSING) {
+                return true;
+            }
+            final TypeRewriteRule rule = fix.getRule();
+            if (rule == TypeRewriteRule.nop()) {
+                return false;
+            }
+            final Optional<? extends RewriteResult<?, ?>> result = rule.rewrite((Type<?>) type);
+            return !result.isPresent() || !result.get().view().isNop();
+        }
+    }
+}
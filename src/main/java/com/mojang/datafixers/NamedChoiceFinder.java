@@ -14,10 +14,13 @@ import static com.mojang.datafixers.TypedOptic.tagged;
 final class NamedChoiceFinder<FT> implements OpticFinder<FT> {
     private final String name;
     private final Type<FT> type;
+    // the matcher for the usual case of an unchanged field type, shared between lookups
+    private final Matcher<FT, FT> sameTypeMatcher;
 
     public NamedChoiceFinder(final String name, final Type<FT> type) {
         this.name = name;
         this.type = type;
+        sameTypeMatcher = new Matcher<>(name, type, type);
     }
 
     @Override
@@ -25,9 +28,11 @@ final class NamedChoiceFinder<FT> implements OpticFinder<FT> {
         return type;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public <A, FR> Either<TypedOptic<A, ?, FT, FR>, Type.FieldNotFoundException> findType(final Type<A> containerType, final Type<FR> resultType, final boolean recurse) {
-        return containerType.findTypeCached(type, resultType, new Matcher<>(name, type, resultType), recurse);
+        final Matcher<FT, FR> matcher = resultType == type ? (Matcher<FT, FR>) sameTypeMatcher : new Matcher<>(name, type, resultType);
+        return containerType.findTypeCached(type, resultType, matcher, recurse);
     }
 
     @Override
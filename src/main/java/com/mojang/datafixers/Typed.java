@@ -7,14 +7,15 @@ import com.google.common.reflect.TypeToken;
 import com.mojang.datafixers.kinds.Const;
 import com.mojang.datafixers.kinds.IdF;
 import com.mojang.datafixers.kinds.Monoid;
+import com.mojang.datafixers.optics.Affine;
 import com.mojang.datafixers.optics.Forget;
 import com.mojang.datafixers.optics.ForgetOpt;
 import com.mojang.datafixers.optics.Inj1;
 import com.mojang.datafixers.optics.Inj2;
+import com.mojang.datafixers.optics.Lens;
 import com.mojang.datafixers.optics.Optics;
 import com.mojang.datafixers.optics.ReForgetC;
 import com.mojang.datafixers.optics.Traversal;
-import com.mojang.datafixers.optics.profunctors.TraversalP;
 import com.mojang.datafixers.types.Type;
 import com.mojang.datafixers.types.templates.RecursivePoint;
 import com.mojang.datafixers.util.Either;
@@ -45,28 +46,39 @@ public final class Typed<A> {
     }
 
     public <FT> FT get(final OpticFinder<FT> optic) {
-        return Forget.unbox(optic.findType(type, false).orThrow().apply(
-            new TypeToken<Forget.Instance.Mu<FT>>() {},
-            new Forget.Instance<>(),
-            Optics.forget(Function.identity())
-        )).run(value);
+        return getCap(optic.findType(type, false).orThrow());
     }
 
     public <FT> Typed<FT> getTyped(final OpticFinder<FT> optic) {
         final TypedOptic<A, ?, FT, FT> o = optic.findType(type, false).orThrow();
-        return new Typed<>(o.aType(), ops, Forget.unbox(o.apply(
+        return new Typed<>(o.aType(), ops, getCap(o));
+    }
+
+    private <B, FT, FR> FT getCap(final TypedOptic<A, B, FT, FR> field) {
+        final Optional<Lens<A, B, FT, FR>> lens = field.lens();
+        if (lens.isPresent()) {
+            return lens.get().view(value);
+        }
+        return Forget.unbox(field.apply(
             new TypeToken<Forget.Instance.Mu<FT>>() {},
             new Forget.Instance<>(),
-            Optics.forget(Function.identity())
-        )).run(value));
+            Optics.<FT, FT, FR>forget(Function.identity())
+        )).run(value);
     }
 
     public <FT> Optional<FT> getOptional(final OpticFinder<FT> optic) {
-        final TypedOptic<A, ?, FT, FT> optic1 = optic.findType(type, false).orThrow();
-        return ForgetOpt.unbox(optic1.apply(
+        return getOptionalCap(optic.findType(type, false).orThrow());
+    }
+
+    private <B, FT, FR> Optional<FT> getOptionalCap(final TypedOptic<A, B, FT, FR> field) {
+        final Optional<Affine<A, B, FT, FR>> affine = field.affine();
+        if (affine.isPresent()) {
+            return affine.get().preview(value).right();
+        }
+        return ForgetOpt.unbox(field.apply(
             new TypeToken<ForgetOpt.Instance.Mu<FT>>() {},
             new ForgetOpt.Instance<>(),
-            Optics.forgetOpt(Optional::of))
+            Optics.<FT, FT, FR>forgetOpt(Optional::of))
         ).run(value);
     }
 
@@ -75,20 +87,12 @@ public final class Typed<A> {
     }
 
     public <FT> FT getOrDefault(final OpticFinder<FT> optic, final FT def) {
-        return ForgetOpt.unbox(optic.findType(type, false).orThrow().apply(
-            new TypeToken<ForgetOpt.Instance.Mu<FT>>() {},
-            new ForgetOpt.Instance<>(),
-            Optics.forgetOpt(Optional::of))
-        ).run(value).orElse(def);
+        return getOptional(optic).orElse(def);
     }
 
     public <FT> Optional<Typed<FT>> getOptionalTyped(final OpticFinder<FT> optic) {
         final TypedOptic<A, ?, FT, FT> o = optic.findType(type, false).orThrow();
-        return ForgetOpt.unbox(o.apply(
-            new TypeToken<ForgetOpt.Instance.Mu<FT>>() {},
-            new ForgetOpt.Instance<>(),
-            Optics.forgetOpt(Optional::of))
-        ).run(value).map(v -> new Typed<>(o.aType(), ops, v));
+        return getOptionalCap(o).map(v -> new Typed<>(o.aType(), ops, v));
     }
 
     public <FT> Typed<FT> getOrCreateTyped(final OpticFinder<FT> optic) {
@@ -109,6 +113,11 @@ public final class Typed<A> {
     }
 
     private <B, FT, FR> Typed<B> setCap(final TypedOptic<A, B, FT, FR> field, final Typed<FR> newValue) {
+        final Optional<Lens<A, B, FT, FR>> lens = field.lens();
+        if (lens.isPresent()) {
+            return new Typed<>(field.tType(), ops, lens.get().update(newValue.value, value));
+        }
+        // a prism sets by building a new value, which an affine traversal would not do
         final B b = ReForgetC.unbox(field.apply(
             new TypeToken<ReForgetC.Instance.Mu<FR>>() {},
             new ReForgetC.Instance<>(),
@@ -160,7 +169,17 @@ public final class Typed<A> {
     }
 
     private <B, FT, FR> Typed<B> updateCap(final TypedOptic<A, B, FT, FR> field, final Function<FT, FR> updater) {
-        final Traversal<A, B, FT, FR> traversal = Optics.toTraversal(field.upCast(TraversalP.Mu.TYPE_TOKEN).orElseThrow(IllegalArgumentException::new));
+        final Optional<Lens<A, B, FT, FR>> lens = field.lens();
+        if (lens.isPresent()) {
+            final Lens<A, B, FT, FR> l = lens.get();
+            return new Typed<>(field.tType(), ops, l.update(updater.apply(l.view(value)), value));
+        }
+        final Optional<Affine<A, B, FT, FR>> affine = field.affine();
+        if (affine.isPresent()) {
+            final Affine<A, B, FT, FR> a = affine.get();
+            return new Typed<>(field.tType(), ops, a.preview(value).map(Function.identity(), ft -> a.set(updater.apply(ft), value)));
+        }
+        final Traversal<A, B, FT, FR> traversal = field.traversal().orElseThrow(IllegalArgumentException::new);
         final B b = IdF.get(traversal.wander(IdF.Instance.INSTANCE, ft -> IdF.create(updater.apply(ft))).apply(value));
         return new Typed<>(field.tType(), ops, b);
     }
@@ -171,7 +190,7 @@ public final class Typed<A> {
     }
 
     public <FT> List<FT> getAll(final TypedOptic<A, ?, FT, ?> field) {
-        final Traversal<A, ?, FT, ?> traversal = Optics.toTraversal(field.upCast(TraversalP.Mu.TYPE_TOKEN).orElseThrow(IllegalArgumentException::new));
+        final Traversal<A, ?, FT, ?> traversal = field.traversal().orElseThrow(IllegalArgumentException::new);
         return Const.unbox(traversal.wander(new Const.Instance<>(Monoid.listMonoid()), ft -> Const.create(ImmutableList.of(ft))).apply(value));
     }
 
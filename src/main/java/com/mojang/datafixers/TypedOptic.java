@@ -10,9 +10,13 @@ import com.mojang.datafixers.kinds.App;
 import com.mojang.datafixers.kinds.App2;
 import com.mojang.datafixers.kinds.K1;
 import com.mojang.datafixers.kinds.K2;
+import com.mojang.datafixers.optics.Affine;
 import com.mojang.datafixers.optics.InjTagged;
+import com.mojang.datafixers.optics.Lens;
 import com.mojang.datafixers.optics.Optic;
 import com.mojang.datafixers.optics.Optics;
+import com.mojang.datafixers.optics.Traversal;
+import com.mojang.datafixers.optics.profunctors.AffineP;
 import com.mojang.datafixers.optics.profunctors.Cartesian;
 import com.mojang.datafixers.optics.profunctors.Cocartesian;
 import com.mojang.datafixers.optics.profunctors.Profunctor;
@@ -22,6 +26,7 @@ import com.mojang.datafixers.types.templates.TaggedChoice;
 import com.mojang.datafixers.util.Either;
 import com.mojang.datafixers.util.Pair;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -29,12 +34,23 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public final class TypedOptic<S, T, A, B> {
 
     private final Set<TypeToken<? extends K1>> bounds;
     private final List<? extends Element<?, ?, ?, ?>> elements;
+    // memoized proof checks and compiled forms; concurrent first uses may build the same value twice
+    private final Map<TypeToken<?>, Boolean> proofs = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile Optic<?, S, T, A, B> composed;
+    @Nullable
+    private volatile Optional<Lens<S, T, A, B>> lens;
+    @Nullable
+    private volatile Optional<Affine<S, T, A, B>> affine;
+    @Nullable
+    private volatile Optional<Traversal<S, T, A, B>> traversal;
 
     public TypedOptic(final TypeToken<? extends K1> proofBound, final Type<S> sType, final Type<T> tType, final Type<A> aType, final Type<B> bType, final Optic<?, S, T, A, B> optic) {
         this(ImmutableSet.of(proofBound), sType, tType, aType, bType, optic);
@@ -112,14 +128,71 @@ public final class TypedOptic<S, T, A, B> {
 
     @SuppressWarnings("unchecked")
     public <Proof2 extends K1> Optional<Optic<? super Proof2, S, T, A, B>> upCast(final TypeToken<Proof2> proof) {
-        if (instanceOf(bounds, proof)) {
+        if (isInstanceOf(proof)) {
+            return Optional.of((Optic<? super Proof2, S, T, A, B>) composed());
+        }
+        return Optional.empty();
+    }
+
+    private <Proof2 extends K1> boolean isInstanceOf(final TypeToken<Proof2> proof) {
+        final Boolean cached = proofs.get(proof);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean result = instanceOf(bounds, proof);
+        proofs.put(proof, result);
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Optic<?, S, T, A, B> composed() {
+        Optic<?, S, T, A, B> result = composed;
+        if (result == null) {
             if (elements.size() == 1) {
-                return Optional.of((Optic<? super Proof2, S, T, A, B>) elements.get(0).optic());
+                result = (Optic<?, S, T, A, B>) elements.get(0).optic();
+            } else {
+                result = new Optic.CompositionOptic(elements.stream().map(Element::optic).collect(Collectors.toList()));
             }
-            final List<Optic<? super Proof2, ?, ?, ?, ?>> optics = elements.stream().map(e -> (Optic<? super Proof2, ?, ?, ?, ?>) e.optic()).collect(Collectors.toList());
-            return Optional.of(new Optic.CompositionOptic<>(optics));
+            composed = result;
         }
-        return Optional.empty();
+        return result;
+    }
+
+    /**
+     * This optic as a lens, if every element is a lens or an adapter.
+     * Built once, so that reading and writing through it does not evaluate the profunctor chain again.
+     */
+    public Optional<Lens<S, T, A, B>> lens() {
+        Optional<Lens<S, T, A, B>> result = lens;
+        if (result == null) {
+            result = upCast(Cartesian.Mu.TYPE_TOKEN).map(Optics::toLens);
+            lens = result;
+        }
+        return result;
+    }
+
+    /**
+     * This optic as an affine traversal, if every element is a lens, prism or adapter. Built once, like {@link #lens()}.
+     */
+    public Optional<Affine<S, T, A, B>> affine() {
+        Optional<Affine<S, T, A, B>> result = affine;
+        if (result == null) {
+            result = upCast(AffineP.Mu.TYPE_TOKEN).map(Optics::toAffine);
+            affine = result;
+        }
+        return result;
+    }
+
+    /**
+     * This optic as a traversal, if it is one. Built once, like {@link #lens()}.
+     */
+    public Optional<Traversal<S, T, A, B>> traversal() {
+        Optional<Traversal<S, T, A, B>> result = traversal;
+        if (result == null) {
+            result = upCast(TraversalP.Mu.TYPE_TOKEN).map(Optics::toTraversal);
+            traversal = result;
+        }
+        return result;
     }
 
     public static <Proof2 extends K1> boolean instanceOf(final Collection<TypeToken<? extends K1>> bounds, final TypeToken<Proof2> proof) {
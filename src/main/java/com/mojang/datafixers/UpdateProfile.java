@@ -0,0 +1,219 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the (type, version) pairs {@link DataFixerUpper#update} is called with, and persists the counts across restarts.
+ *
+ * Only updates to the data version are counted, as those are the rewrites {@link DataFixerBuilder.Result#optimize}
+ * prepares. Once a profile is loaded, optimize only prepares the pairs in it, the most frequent first.
+ * The file is keyed by a fingerprint of the schemas, fixes and data version, a mismatch discards it. A stale profile
+ * only makes optimize prepare the wrong pairs, so the fingerprint only covers versions and class names.
+ */
+final class UpdateProfile {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UpdateProfile.class);
+
+    private final int dataVersion;
+    private volatile boolean loaded;
+    private volatile Map<String, Int2LongMap> loadedCounts = Map.of();
+    private final Map<String, Map<Integer, LongAdder>> recordedCounts = Maps.newConcurrentMap();
+
+    UpdateProfile(final int dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    void record(final String typeName, final int version, final int newVersion, final int count) {
+        if (newVersion != dataVersion) {
+            return;
+        }
+        Map<Integer, LongAdder> versions = recordedCounts.get(typeName);
+        if (versions == null) {
+            versions = recordedCounts.computeIfAbsent(typeName, k -> Maps.newConcurrentMap());
+        }
+        LongAdder counter = versions.get(version);
+        if (counter == null) {
+            counter = versions.computeIfAbsent(version, k -> new LongAdder());
+        }
+        counter.add(count);
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * The loaded and recorded pairs of the given types, the most frequent first.
+     */
+    List<Pair<String, Integer>> hottest(final Set<String> typeNames) {
+        final Object2LongMap<Pair<String, Integer>> counts = counts();
+        final List<Pair<String, Integer>> pairs = new ArrayList<>();
+        for (final Pair<String, Integer> pair : counts.keySet()) {
+            if (typeNames.contains(pair.getFirst())) {
+                pairs.add(pair);
+            }
+        }
+        pairs.sort(Comparator.<Pair<String, Integer>>comparingLong(counts::getLong).reversed()
+            .thenComparing(Pair::getFirst)
+            .thenComparing(Pair::getSecond));
+        return pairs;
+    }
+
+    private Object2LongMap<Pair<String, Integer>> counts() {
+        final Object2LongMap<Pair<String, Integer>> counts = new Object2LongOpenHashMap<>();
+        loadedCounts.forEach((typeName, versions) -> versions.int2LongEntrySet().forEach(entry -> counts.mergeLong(Pair.of(typeName, entry.getIntKey()), entry.getLongValue(), Long::sum)));
+        recordedCounts.forEach((typeName, versions) -> versions.forEach((version, counter) -> counts.mergeLong(Pair.of(typeName, version), counter.sum(), Long::sum)));
+        return counts;
+    }
+
+    static String fingerprint(final Int2ObjectSortedMap<Schema> schemas, final List<DataFix> fixes, final int dataVersion) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putInt(dataVersion);
+        for (final Int2ObjectMap.Entry<Schema> entry : schemas.int2ObjectEntrySet()) {
+            hasher.putInt(entry.getIntKey());
+            hasher.putString(entry.getValue().getClass().getName(), StandardCharsets.UTF_8);
+        }
+        for (final DataFix fix : fixes) {
+            hasher.putInt(fix.getVersionKey());
+            hasher.putString(fix.getClass().getName(), StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    boolean load(final Path path, final String fingerprint) {
+        final JsonElement json = readJson(path);
+        if (json == null) {
+            return false;
+        }
+
+        final Optional<Snapshot> snapshot = Snapshot.CODEC.parse(JsonOps.INSTANCE, json).resultOrPartial(error -> LOGGER.warn("Invalid update profile {}: {}", path, error));
+        if (!snapshot.isPresent()) {
+            return false;
+        }
+        if (!fingerprint.equals(snapshot.get().fingerprint) || dataVersion != snapshot.get().dataVersion) {
+            LOGGER.info("Discarding update profile {}, schemas or fixes have changed", path);
+            return false;
+        }
+
+        final Map<String, Int2LongMap> counts = Maps.newHashMap();
+        for (final Entry entry : snapshot.get().entries) {
+            counts.computeIfAbsent(entry.type, k -> new Int2LongOpenHashMap()).mergeLong(entry.version, entry.count, Long::sum);
+        }
+        loadedCounts = counts;
+        loaded = true;
+        return true;
+    }
+
+    /**
+     * Saves the loaded counts added to the ones recorded since.
+     */
+    void save(final Path path, final String fingerprint) throws IOException {
+        final List<Entry> entries = new ArrayList<>();
+        counts().object2LongEntrySet().forEach(entry -> entries.add(new Entry(entry.getKey().getFirst(), entry.getKey().getSecond(), entry.getLongValue())));
+        entries.sort(Comparator.<Entry, String>comparing(e -> e.type).thenComparingInt(e -> e.version));
+
+        writeJson(path, Snapshot.CODEC.encodeStart(JsonOps.INSTANCE, new Snapshot(fingerprint, dataVersion, entries)).getOrThrow(IOException::new));
+    }
+
+    /**
+     * Reads the JSON file at {@code path}, or returns {@code null} if it is missing or unreadable.
+     */
+    @Nullable
+    private static JsonElement readJson(final Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader);
+        } catch (final IOException | JsonParseException e) {
+            LOGGER.warn("Could not read update profile {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes {@code json} to {@code path}, replacing the previous file only once fully written.
+     */
+    private static void writeJson(final Path path, final JsonElement json) throws IOException {
+        final Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(json.toString());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static final class Entry {
+        static final Codec<Entry> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("type").forGetter(e -> e.type),
+            Codec.INT.fieldOf("version").forGetter(e -> e.version),
+            Codec.LONG.fieldOf("count").forGetter(e -> e.count)
+        ).apply(i, Entry::new));
+
+        private final String type;
+        private final int version;
+        private final long count;
+
+        private Entry(final String type, final int version, final long count) {
+            this.type = type;
+            this.version = version;
+            this.count = count;
+        }
+    }
+
+    private static final class Snapshot {
+        static final Codec<Snapshot> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("fingerprint").forGetter(s -> s.fingerprint),
+            Codec.INT.fieldOf("data_version").forGetter(s -> s.dataVersion),
+            Entry.CODEC.listOf().fieldOf("updates").forGetter(s -> s.entries)
+        ).apply(i, Snapshot::new));
+
+        private final String fingerprint;
+        private final int dataVersion;
+        private final List<Entry> entries;
+
+        private Snapshot(final String fingerprint, final int dataVersion, final List<Entry> entries) {
+            this.fingerprint = fingerprint;
+            this.dataVersion = dataVersion;
+            this.entries = entries;
+        }
+    }
+}
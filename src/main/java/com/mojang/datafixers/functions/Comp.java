@@ -112,13 +112,19 @@ final class Comp<A, B> extends PointFree<Function<A, B>> {
 
     @Override
     public Function<DynamicOps<?>, Function<A, B>> eval() {
-        return ops -> input -> {
-            Object value = input;
-            for (int i = functions.length - 1; i >= 0; i--) {
-                final PointFree<? extends Function<?, ?>> f = functions[i];
-                value = applyUnchecked(f.evalCached().apply(ops), value);
+        return ops -> {
+            // resolve the functions once per ops instead of once per input
+            final Function<?, ?>[] resolved = new Function<?, ?>[functions.length];
+            for (int i = 0; i < functions.length; i++) {
+                resolved[i] = functions[i].evalCached(ops);
             }
-            return (B) value;
+            return input -> {
+                Object value = input;
+                for (int i = resolved.length - 1; i >= 0; i--) {
+                    value = applyUnchecked(resolved[i], value);
+                }
+                return (B) value;
+            };
         };
     }
 
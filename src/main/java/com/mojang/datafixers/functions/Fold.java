@@ -14,6 +14,7 @@ import com.mojang.datafixers.types.templates.RecursivePoint;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DynamicOps;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -49,12 +50,31 @@ final class Fold<A, B> extends PointFree<Function<A, B>> {
         public Algebra algebra() {
             return algebra;
         }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            final HmapCacheKey that = (HmapCacheKey) obj;
+            return Objects.equals(family, that.family) && Objects.equals(newFamily, that.newFamily) && Objects.equals(algebra, that.algebra);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(family, newFamily, algebra);
+        }
     }
 
     protected final RecursivePoint.RecursivePointType<A> aType;
     protected final RecursivePoint.RecursivePointType<B> bType;
     protected final Algebra algebra;
     protected final int index;
+    @Nullable
+    private volatile PointFree<Function<A, B>> body;
 
     public Fold(final RecursivePoint.RecursivePointType<A> aType, final RecursivePoint.RecursivePointType<B> bType, final Algebra algebra, final int index) {
         this.aType = aType;
@@ -102,16 +122,23 @@ final class Fold<A, B> extends PointFree<Function<A, B>> {
 
     @Override
     public Function<DynamicOps<?>, Function<A, B>> eval() {
-        return ops -> a -> {
+        // the body refers back to folds of the same family, so it can only be resolved once it is applied
+        return ops -> a -> body().evalCached(ops).apply(a);
+    }
+
+    private PointFree<Function<A, B>> body() {
+        PointFree<Function<A, B>> result = body;
+        if (result == null) {
             final RecursiveTypeFamily family = aType.family();
             final RecursiveTypeFamily newFamily = bType.family();
 
             final IntFunction<RewriteResult<?, ?>> hmapped = HMAP_CACHE.computeIfAbsent(new HmapCacheKey(family, newFamily, algebra), key -> key.family().template().hmap(key.family(), key.family().fold(key.algebra(), key.newFamily())));
-            final RewriteResult<?, ?> result = HMAP_APPLY_CACHE.computeIfAbsent(Pair.of(hmapped, index), key -> key.getFirst().apply(key.getSecond()));
+            final RewriteResult<?, ?> hmappedResult = HMAP_APPLY_CACHE.computeIfAbsent(Pair.of(hmapped, index), key -> key.getFirst().apply(key.getSecond()));
 
-            final PointFree<Function<A, B>> eval = cap(result);
-            return eval.evalCached().apply(ops).apply(a);
-        };
+            result = cap(hmappedResult);
+            body = result;
+        }
+        return result;
     }
 
     @Override
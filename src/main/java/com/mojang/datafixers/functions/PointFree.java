@@ -10,9 +10,19 @@ import java.util.Optional;
 import java.util.function.Function;
 
 public abstract class PointFree<T> {
+    /**
+     * Upper bound on the number of ops instances {@link #evalCached(DynamicOps)} keeps a function for, per point free.
+     */
+    private static final int MAX_CACHED_OPS = 8;
+    private static final Instance<?>[] NO_INSTANCES = new Instance<?>[0];
+
     private volatile boolean initialized;
     @Nullable
     private Function<DynamicOps<?>, T> value;
+    @Nullable
+    private volatile Instance<T> lastInstance;
+    // copy on write, oldest first; the functions usually capture their ops, so entries are held strongly and only the size bound drops them
+    private volatile Instance<?>[] instances = NO_INSTANCES;
 
     @SuppressWarnings("ConstantConditions")
     public Function<DynamicOps<?>, T> evalCached() {
@@ -27,6 +37,50 @@ public abstract class PointFree<T> {
         return value;
     }
 
+    /**
+     * Same as {@code evalCached().apply(ops)}, but the result is built once per ops instance and reused.
+     * The last ops used is checked by identity first, so the common case of a single ops is a field read.
+     * At most {@link #MAX_CACHED_OPS} ops are kept, the oldest one is dropped first.
+     */
+    public T evalCached(final DynamicOps<?> ops) {
+        final Instance<T> last = lastInstance;
+        if (last != null && last.ops == ops) {
+            return last.value;
+        }
+        Instance<T> instance = find(instances, ops);
+        if (instance == null) {
+            instance = add(new Instance<>(ops, evalCached().apply(ops)));
+        }
+        lastInstance = instance;
+        return instance.value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private static <T> Instance<T> find(final Instance<?>[] instances, final DynamicOps<?> ops) {
+        for (final Instance<?> instance : instances) {
+            if (instance.ops == ops) {
+                return (Instance<T>) instance;
+            }
+        }
+        return null;
+    }
+
+    private synchronized Instance<T> add(final Instance<T> instance) {
+        final Instance<?>[] current = instances;
+        // another thread may have evaluated the same ops meanwhile, keep the published instance
+        final Instance<T> existing = find(current, instance.ops);
+        if (existing != null) {
+            return existing;
+        }
+        final int kept = Math.min(current.length, MAX_CACHED_OPS - 1);
+        final Instance<?>[] updated = new Instance<?>[kept + 1];
+        System.arraycopy(current, current.length - kept, updated, 0, kept);
+        updated[kept] = instance;
+        instances = updated;
+        return instance;
+    }
+
     public abstract Type<T> type();
 
     public abstract Function<DynamicOps<?>, T> eval();
@@ -49,4 +103,14 @@ public abstract class PointFree<T> {
     }
 
     public abstract String toString(int level);
+
+    private static final class Instance<T> {
+        private final DynamicOps<?> ops;
+        private final T value;
+
+        private Instance(final DynamicOps<?> ops, final T value) {
+            this.ops = ops;
+            this.value = value;
+        }
+    }
 }
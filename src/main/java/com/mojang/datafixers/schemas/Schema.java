@@ -15,16 +15,26 @@ import com.mojang.datafixers.types.templates.TypeTemplate;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+/**
+ * Templates are registered and types built lazily, the first time the schema is asked for a type or template,
+ * so that schemas of versions that are never updated from cost nothing beyond their construction.
+ */
 public class Schema {
     protected final Object2IntMap<String> RECURSIVE_TYPES = new Object2IntOpenHashMap<>();
     private final Map<String, Supplier<TypeTemplate>> TYPE_TEMPLATES = Maps.newHashMap();
-    private final Map<String, Type<?>> TYPES;
+    @Nullable
+    private volatile Map<String, Type<?>> TYPES;
+    private volatile boolean registered;
+    // the thread running the registration, templates it registers may already look up ids of this schema
+    @Nullable
+    private Thread registeringThread;
     private final int versionKey;
     private final String name;
     protected final Schema parent;
@@ -34,8 +44,47 @@ public class Schema {
         final int subVersion = DataFixUtils.getSubVersion(versionKey);
         name = "V" + DataFixUtils.getVersion(versionKey) + (subVersion == 0 ? "" : "." + subVersion);
         this.parent = parent;
-        registerTypes(this, registerEntities(this), registerBlockEntities(this));
-        TYPES = buildTypes();
+    }
+
+    private void ensureRegistered() {
+        if (registered) {
+            return;
+        }
+        synchronized (this) {
+            // other threads wait on the monitor until the registration is complete
+            if (registered || registeringThread == Thread.currentThread()) {
+                return;
+            }
+            registeringThread = Thread.currentThread();
+            try {
+                registerTypes(this, registerEntities(this), registerBlockEntities(this));
+                registered = true;
+            } finally {
+                registeringThread = null;
+            }
+        }
+    }
+
+    private Map<String, Type<?>> builtTypes() {
+        Map<String, Type<?>> types = TYPES;
+        if (types == null) {
+            synchronized (this) {
+                types = TYPES;
+                if (types == null) {
+                    ensureRegistered();
+                    types = buildTypes();
+                    TYPES = types;
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Whether the types of this schema have been built yet.
+     */
+    public boolean isMaterialized() {
+        return TYPES != null;
     }
 
     protected Map<String, Type<?>> buildTypes() {
@@ -64,19 +113,19 @@ public class Schema {
     }
 
     public Set<String> types() {
-        return TYPES.keySet();
+        return builtTypes().keySet();
     }
 
     public Type<?> getTypeRaw(final DSL.TypeReference type) {
         final String name = type.typeName();
-        return TYPES.computeIfAbsent(name, key -> {
+        return builtTypes().computeIfAbsent(name, key -> {
             throw new IllegalArgumentException("Unknown type: " + name);
         });
     }
 
     public Type<?> getType(final DSL.TypeReference type) {
         final String name = type.typeName();
-        final Type<?> type1 = TYPES.computeIfAbsent(name, key -> {
+        final Type<?> type1 = builtTypes().computeIfAbsent(name, key -> {
             throw new IllegalArgumentException("Unknown type: " + name);
         });
         if (type1 instanceof RecursivePoint.RecursivePointType<?>) {
@@ -86,12 +135,14 @@ public class Schema {
     }
 
     public TypeTemplate resolveTemplate(final String name) {
+        ensureRegistered();
         return TYPE_TEMPLATES.getOrDefault(name, () -> {
             throw new IllegalArgumentException("Unknown type: " + name);
         }).get();
     }
 
     public TypeTemplate id(final String name) {
+        ensureRegistered();
         final int id = RECURSIVE_TYPES.getOrDefault(name, -1);
         if (id != -1) {
             return DSL.id(id);
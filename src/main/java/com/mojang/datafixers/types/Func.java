@@ -13,6 +13,7 @@ import java.util.function.Function;
 public final class Func<A, B> extends Type<Function<A, B>> {
     protected final Type<A> first;
     protected final Type<B> second;
+    private int hashCode;
 
     public Func(final Type<A> first, final Type<B> second) {
         this.first = first;
@@ -39,6 +40,9 @@ public final class Func<A, B> extends Type<Function<A, B>> {
 
     @Override
     public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+        if (this == obj) {
+            return true;
+        }
         if (!(obj instanceof Func<?, ?>)) {
             return false;
         }
@@ -48,9 +52,12 @@ public final class Func<A, B> extends Type<Function<A, B>> {
 
     @Override
     public int hashCode() {
-        int result = first.hashCode();
-        result = 31 * result + second.hashCode();
-        return result;
+        if (hashCode == 0) {
+            int result = first.hashCode();
+            result = 31 * result + second.hashCode();
+            hashCode = result;
+        }
+        return hashCode;
     }
 
     public Type<A> first() {
@@ -2,6 +2,11 @@
 // Licensed under the MIT license.
 package com.mojang.datafixers.types;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Maps;
 import com.mojang.datafixers.DSL;
 import com.mojang.datafixers.DataFixUtils;
@@ -28,24 +33,37 @@ import com.mojang.serialization.DynamicOps;
 
 import javax.annotation.Nullable;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 public abstract class Type<A> implements App<Type.Mu, A> {
+    /**
+     * Upper bound on the number of completed rewrites kept in {@link #REWRITE_CACHE}, least recently used entries are evicted first.
+     * Can be overridden with the {@code datafixerupper.rewriteCacheSize} system property.
+     */
+    public static final int REWRITE_CACHE_SIZE = Integer.getInteger("datafixerupper.rewriteCacheSize", 1 << 16);
+
     private static final Map<RewriteCacheKey, CompletableFuture<Optional<? extends RewriteResult<?, ?>>>> PENDING_REWRITE_CACHE = Maps.newConcurrentMap();
-    private static final Map<RewriteCacheKey, Optional<? extends RewriteResult<?, ?>>> REWRITE_CACHE = Maps.newConcurrentMap();
+    private static final Cache<RewriteCacheKey, Optional<? extends RewriteResult<?, ?>>> REWRITE_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(REWRITE_CACHE_SIZE)
+        .recordStats()
+        .build();
 
     private static final class RewriteCacheKey {
 
         private final Type<?> type;
         private final TypeRewriteRule rule;
         private final PointFreeRule optimizationRule;
+        private final int hashCode;
 
         private RewriteCacheKey(Type<?> type, TypeRewriteRule rule, PointFreeRule optimizationRule) {
             this.type = type;
             this.rule = rule;
             this.optimizationRule = optimizationRule;
+            hashCode = Objects.hash(type, rule, optimizationRule);
         }
 
         public Type<?> type() {
@@ -59,6 +77,103 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         public PointFreeRule optimizationRule() {
             return optimizationRule;
         }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof RewriteCacheKey)) {
+                return false;
+            }
+            final RewriteCacheKey that = (RewriteCacheKey) obj;
+            return hashCode == that.hashCode && Objects.equals(type, that.type) && Objects.equals(rule, that.rule) && Objects.equals(optimizationRule, that.optimizationRule);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters of the shared rewrite cache used by {@link #rewrite(TypeRewriteRule, PointFreeRule)}.
+     */
+    public static CacheStats rewriteCacheStats() {
+        return REWRITE_CACHE.stats();
+    }
+
+    /**
+     * Number of completed rewrites currently held by the shared rewrite cache.
+     */
+    public static long rewriteCacheSize() {
+        return REWRITE_CACHE.size();
+    }
+
+    /**
+     * Upper bound on the number of optics kept in {@link #FIND_TYPE_CACHE}, least recently used entries are evicted first.
+     * Can be overridden with the {@code datafixerupper.findTypeCacheSize} system property.
+     */
+    public static final int FIND_TYPE_CACHE_SIZE = Integer.getInteger("datafixerupper.findTypeCacheSize", 1 << 14);
+
+    // resolved optics, for findTypeCached
+    private static final Cache<FindTypeCacheKey, Either<? extends TypedOptic<?, ?, ?, ?>, FieldNotFoundException>> FIND_TYPE_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(FIND_TYPE_CACHE_SIZE)
+        .build();
+
+    private static final class FindTypeCacheKey {
+        private final Type<?> containerType;
+        private final Type<?> type;
+        private final Type<?> resultType;
+        private final TypeMatcher<?, ?> matcher;
+        private final boolean recurse;
+        private final int hashCode;
+
+        private FindTypeCacheKey(final Type<?> containerType, final Type<?> type, final Type<?> resultType, final TypeMatcher<?, ?> matcher, final boolean recurse) {
+            this.containerType = containerType;
+            this.type = type;
+            this.resultType = resultType;
+            this.matcher = matcher;
+            this.recurse = recurse;
+            hashCode = Objects.hash(containerType, type, resultType, matcher, recurse);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof FindTypeCacheKey)) {
+                return false;
+            }
+            final FindTypeCacheKey that = (FindTypeCacheKey) obj;
+            return hashCode == that.hashCode && recurse == that.recurse && Objects.equals(containerType, that.containerType) && Objects.equals(type, that.type)
+                && Objects.equals(resultType, that.resultType) && Objects.equals(matcher, that.matcher);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Number of optics currently held by the shared cache used by {@link #findTypeCached}.
+     */
+    public static long findTypeCacheSize() {
+        return FIND_TYPE_CACHE.size();
+    }
+
+    private static final Interner<Type<?>> INTERNER = Interners.newWeakInterner();
+
+    /**
+     * Returns the canonical instance structurally equal to the given type.
+     * The DSL factories intern every type they build, so equal types usually are the same instance and compare
+     * by identity, and identical sub-types are shared between schemas.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Type<?>> T intern(final T type) {
+        return (T) INTERNER.intern(type);
     }
 
     public static class Mu implements K1 {}
@@ -162,7 +277,7 @@ public abstract class Type<A> implements App<Type.Mu, A> {
 
     public <T> DataResult<Pair<Optional<?>, T>> read(final DynamicOps<T> ops, final TypeRewriteRule rule, final PointFreeRule fRule, final T input) {
         return codec().decode(ops, input).map(vo -> vo.mapFirst(v ->
-            rewrite(rule, fRule).map(r -> r.view().function().evalCached().apply(ops).apply(v)
+            rewrite(rule, fRule).map(r -> r.view().function().evalCached(ops).apply(v)
             )
         ));
     }
@@ -182,11 +297,38 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         );
     }
 
+    /**
+     * resolve the rewrite once and return a function reading, rewriting and writing any number of inputs with it
+     */
+    public <T> DataResult<Function<T, DataResult<T>>> readAndWriteFunction(final DynamicOps<T> ops, final Type<?> expectedType, final TypeRewriteRule rule, final PointFreeRule fRule) {
+        final Optional<RewriteResult<A, ?>> rewriteResult = rewrite(rule, fRule);
+        if (!rewriteResult.isPresent()) {
+            return DataResult.error(() -> "Could not build a rewrite rule: " + rule + " " + fRule);
+        }
+        final View<A, ?> view = rewriteResult.get().view();
+        if (view.isNop()) {
+            return DataResult.success(DataResult::success);
+        }
+        return capWriteFunction(ops, expectedType, view);
+    }
+
+    private <T, B> DataResult<Function<T, DataResult<T>>> capWriteFunction(final DynamicOps<T> ops, final Type<?> expectedType, final View<A, B> f) {
+        if (!expectedType.equals(f.newType(), true, true)) {
+            return DataResult.error(() -> "Rewritten type doesn't match");
+        }
+        final Codec<A> codec = codec();
+        final Codec<B> newCodec = f.newType().codec();
+        final Function<A, B> function = f.function().evalCached(ops);
+        return DataResult.success(input -> codec.decode(ops, input).flatMap(pair ->
+            newCodec.encode(function.apply(pair.getFirst()), ops, pair.getSecond())
+        ));
+    }
+
     private <T, B> DataResult<T> capWrite(final DynamicOps<T> ops, final Type<?> expectedType, final T rest, final A value, final View<A, B> f) {
         if (!expectedType.equals(f.newType(), true, true)) {
             return DataResult.error(() -> "Rewritten type doesn't match");
         }
-        return f.newType().codec().encode(f.function().evalCached().apply(ops).apply(value), ops, rest);
+        return f.newType().codec().encode(f.function().evalCached(ops).apply(value), ops, rest);
     }
 
     @SuppressWarnings("unchecked")
@@ -195,7 +337,7 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         // This code under contention would generate multiple rewrites, so we use CompletableFuture for pending rewrites.
         // We can not use computeIfAbsent because this is a recursive call that will block server startup
         // during the Bootstrap phrase that's trying to pre cache these rewrites.
-        final Optional<? extends RewriteResult<?, ?>> rewrite = REWRITE_CACHE.get(key);
+        final Optional<? extends RewriteResult<?, ?>> rewrite = REWRITE_CACHE.getIfPresent(key);
         if (rewrite != null) {
             return (Optional<RewriteResult<A, ?>>) rewrite;
         }
@@ -208,7 +350,10 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         });
 
         if (ref.getPlain() != null) {
-            final Optional<RewriteResult<A, ?>> result = rule.rewrite(this).flatMap(r -> r.view().rewrite(fRule).map(view -> RewriteResult.create(view, r.recData())));
+            // an optimization pass can start from the unoptimized rewrite if that was already needed
+            final Optional<? extends RewriteResult<?, ?>> unoptimized = fRule == PointFreeRule.nop() ? null : REWRITE_CACHE.getIfPresent(new RewriteCacheKey(this, rule, PointFreeRule.nop()));
+            final Optional<RewriteResult<A, ?>> base = unoptimized != null ? (Optional<RewriteResult<A, ?>>) unoptimized : rule.rewrite(this);
+            final Optional<RewriteResult<A, ?>> result = base.flatMap(r -> r.view().rewrite(fRule).map(view -> RewriteResult.create(view, r.recData())));
             REWRITE_CACHE.put(key, result);
             pending.complete(result);
             PENDING_REWRITE_CACHE.remove(key);
@@ -217,6 +362,13 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         return (Optional<RewriteResult<A, ?>>) pending.join();
     }
 
+    /**
+     * Whether {@link #rewrite} would return right away, without rewriting.
+     */
+    public boolean isRewriteCached(final TypeRewriteRule rule, final PointFreeRule fRule) {
+        return REWRITE_CACHE.getIfPresent(new RewriteCacheKey(this, rule, fRule)) != null;
+    }
+
     public <FT, FR> Type<?> getSetType(final OpticFinder<FT> optic, final Type<FR> newType) {
         return optic.findType(this, newType, false).orThrow().tType();
     }
@@ -250,8 +402,21 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         return point(ops).map(value -> new Typed<>(this, ops, value));
     }
 
+    /**
+     * Like {@link #findType}, but remembers the result in a cache shared by all types, bounded by {@link #FIND_TYPE_CACHE_SIZE}.
+     * Results are keyed by this type, {@code type}, {@code resultType}, {@code recurse} and the matcher, so the matcher
+     * must implement equals and hashCode over any other state its result depends on.
+     */
+    @SuppressWarnings("unchecked")
     public <FT, FR> Either<TypedOptic<A, ?, FT, FR>, FieldNotFoundException> findTypeCached(final Type<FT> type, final Type<FR> resultType, final TypeMatcher<FT, FR> matcher, final boolean recurse) {
-        return findType(type, resultType, matcher, recurse);
+        final FindTypeCacheKey key = new FindTypeCacheKey(this, type, resultType, matcher, recurse);
+        final Either<? extends TypedOptic<?, ?, ?, ?>, FieldNotFoundException> cached = FIND_TYPE_CACHE.getIfPresent(key);
+        if (cached != null) {
+            return (Either<TypedOptic<A, ?, FT, FR>, FieldNotFoundException>) cached;
+        }
+        final Either<TypedOptic<A, ?, FT, FR>, FieldNotFoundException> result = findType(type, resultType, matcher, recurse);
+        FIND_TYPE_CACHE.asMap().putIfAbsent(key, result);
+        return result;
     }
 
     public <FT, FR> Either<TypedOptic<A, ?, FT, FR>, FieldNotFoundException> findType(final Type<FT> type, final Type<FR> resultType, final TypeMatcher<FT, FR> matcher, final boolean recurse) {
@@ -296,6 +461,10 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         if (this == o) {
             return true;
         }
+        // hashes are cached and consistent with strict equality, most unequal types differ here
+        if (!(o instanceof Type<?>) || hashCode() != o.hashCode()) {
+            return false;
+        }
         return equals(o, false, true);
     }
 
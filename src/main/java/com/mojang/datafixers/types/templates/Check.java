@@ -58,7 +58,7 @@ public final class Check implements TypeTemplate {
                 if (index < 0) {
                     throw new IndexOutOfBoundsException();
                 }
-                return new CheckType<>(name, index, Check.this.index, element.apply(family).apply(index));
+                return Type.intern(new CheckType<>(name, index, Check.this.index, element.apply(family).apply(index)));
             }
 
             /*@Override
@@ -106,6 +106,7 @@ public final class Check implements TypeTemplate {
         private final int index;
         private final int expectedIndex;
         private final Type<A> delegate;
+        private int hashCode;
 
         public CheckType(final String name, final int index, final int expectedIndex, final Type<A> delegate) {
             this.name = name;
@@ -159,7 +160,7 @@ public final class Check implements TypeTemplate {
 
         @Override
         public Type<?> updateMu(final RecursiveTypeFamily newFamily) {
-            return new CheckType<>(name, index, expectedIndex, delegate.updateMu(newFamily));
+            return Type.intern(new CheckType<>(name, index, expectedIndex, delegate.updateMu(newFamily)));
         }
 
         @Override
@@ -218,6 +219,9 @@ public final class Check implements TypeTemplate {
 
         @Override
         public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+            if (this == obj) {
+                return true;
+            }
             if (!(obj instanceof CheckType<?>)) {
                 return false;
             }
@@ -235,10 +239,13 @@ public final class Check implements TypeTemplate {
 
         @Override
         public int hashCode() {
-            int result = index;
-            result = 31 * result + expectedIndex;
-            result = 31 * result + delegate.hashCode();
-            return result;
+            if (hashCode == 0) {
+                int result = index;
+                result = 31 * result + expectedIndex;
+                result = 31 * result + delegate.hashCode();
+                hashCode = result;
+            }
+            return hashCode;
         }
     }
 }
@@ -104,6 +104,7 @@ public final class CompoundList implements TypeTemplate {
     public static final class CompoundListType<K, V> extends Type<List<Pair<K, V>>> {
         protected final Type<K> key;
         protected final Type<V> element;
+        private int hashCode;
 
         public CompoundListType(final Type<K> key, final Type<V> element) {
             this.key = key;
@@ -184,6 +185,9 @@ public final class CompoundList implements TypeTemplate {
 
         @Override
         public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+            if (this == obj) {
+                return true;
+            }
             if (!(obj instanceof CompoundListType<?, ?>)) {
                 return false;
             }
@@ -193,9 +197,12 @@ public final class CompoundList implements TypeTemplate {
 
         @Override
         public int hashCode() {
-            int result = key.hashCode();
-            result = 31 * result + element.hashCode();
-            return result;
+            if (hashCode == 0) {
+                int result = key.hashCode();
+                result = 31 * result + element.hashCode();
+                hashCode = result;
+            }
+            return hashCode;
         }
 
         public Type<K> getKey() {
@@ -98,6 +98,7 @@ public final class Hook implements TypeTemplate {
         private final Type<A> delegate;
         private final HookFunction preRead;
         private final HookFunction postWrite;
+        private int hashCode;
 
         public HookType(final Type<A> delegate, final HookFunction preRead, final HookFunction postWrite) {
             this.delegate = delegate;
@@ -132,7 +133,7 @@ public final class Hook implements TypeTemplate {
 
         @Override
         public Type<?> updateMu(final RecursiveTypeFamily newFamily) {
-            return new HookType<>(delegate.updateMu(newFamily), preRead, postWrite);
+            return Type.intern(new HookType<>(delegate.updateMu(newFamily), preRead, postWrite));
         }
 
         @Override
@@ -186,6 +187,9 @@ public final class Hook implements TypeTemplate {
 
         @Override
         public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+            if (this == obj) {
+                return true;
+            }
             if (!(obj instanceof HookType<?>)) {
                 return false;
             }
@@ -195,10 +199,13 @@ public final class Hook implements TypeTemplate {
 
         @Override
         public int hashCode() {
-            int result = delegate.hashCode();
-            result = 31 * result + preRead.hashCode();
-            result = 31 * result + postWrite.hashCode();
-            return result;
+            if (hashCode == 0) {
+                int result = delegate.hashCode();
+                result = 31 * result + preRead.hashCode();
+                result = 31 * result + postWrite.hashCode();
+                hashCode = result;
+            }
+            return hashCode;
         }
     }
 }
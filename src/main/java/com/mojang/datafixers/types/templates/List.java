@@ -155,6 +155,9 @@ public final class List implements TypeTemplate {
 
         @Override
         public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+            if (this == obj) {
+                return true;
+            }
             return obj instanceof ListType<?> && element.equals(((ListType<?>) obj).element, ignoreRecursionPoints, checkIndex);
         }
 
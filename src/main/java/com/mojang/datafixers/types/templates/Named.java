@@ -82,6 +82,7 @@ public final class Named implements TypeTemplate {
     public static final class NamedType<A> extends Type<Pair<String, A>> {
         protected final String name;
         protected final Type<A> element;
+        private int hashCode;
 
         public NamedType(final String name, final Type<A> element) {
             this.name = name;
@@ -172,9 +173,12 @@ public final class Named implements TypeTemplate {
 
         @Override
         public int hashCode() {
-            int result = name.hashCode();
-            result = 31 * result + element.hashCode();
-            return result;
+            if (hashCode == 0) {
+                int result = name.hashCode();
+                result = 31 * result + element.hashCode();
+                hashCode = result;
+            }
+            return hashCode;
         }
 
         @Override
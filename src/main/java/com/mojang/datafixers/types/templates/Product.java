@@ -225,6 +225,9 @@ public final class Product implements TypeTemplate {
 
         @Override
         public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+            if (this == obj) {
+                return true;
+            }
             if (!(obj instanceof ProductType<?, ?>)) {
                 return false;
             }
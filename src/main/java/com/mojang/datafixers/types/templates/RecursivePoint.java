@@ -246,6 +246,9 @@ public final class RecursivePoint implements TypeTemplate {
 
         @Override
         public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+            if (this == obj) {
+                return true;
+            }
             if (!(obj instanceof RecursivePointType)) {
                 return false;
             }
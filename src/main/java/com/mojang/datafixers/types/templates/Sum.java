@@ -199,6 +199,9 @@ public final class Sum implements TypeTemplate {
 
         @Override
         public boolean equals(final Object obj, final boolean ignoreRecursionPoints, final boolean checkIndex) {
+            if (this == obj) {
+                return true;
+            }
             if (!(obj instanceof SumType<?, ?>)) {
                 return false;
             }
@@ -125,6 +125,7 @@ public final class Tag implements TypeTemplate {
     public static final class TagType<A> extends Type<A> {
         protected final String name;
         protected final Type<A> element;
+        private int hashCode;
 
         public TagType(final String name, final Type<A> element) {
             this.name = name;
@@ -191,9 +192,12 @@ public final class Tag implements TypeTemplate {
 
         @Override
         public int hashCode() {
-            int result = name.hashCode();
-            result = 31 * result + element.hashCode();
-            return result;
+            if (hashCode == 0) {
+                int result = name.hashCode();
+                result = 31 * result + element.hashCode();
+                hashCode = result;
+            }
+            return hashCode;
         }
 
         @Override
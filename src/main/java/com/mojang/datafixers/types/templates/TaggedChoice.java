@@ -21,7 +21,6 @@ import com.mojang.datafixers.kinds.K1;
 import com.mojang.datafixers.optics.Affine;
 import com.mojang.datafixers.optics.Lens;
 import com.mojang.datafixers.optics.Optic;
-import com.mojang.datafixers.optics.Optics;
 import com.mojang.datafixers.optics.Traversal;
 import com.mojang.datafixers.optics.profunctors.AffineP;
 import com.mojang.datafixers.optics.profunctors.Cartesian;
@@ -254,8 +253,6 @@ public final class TaggedChoice<K> implements TypeTemplate {
                 final Optic<?, Pair<K, ?>, Pair<K, ?>, FT, FR> optic;
                 final TypeToken<? extends K1> bound;
 
-                // TODO: cache casts
-
                 if (TypedOptic.instanceOf(bounds, Cartesian.Mu.TYPE_TOKEN) && optics.size() == types.size()) {
                     bound = Cartesian.Mu.TYPE_TOKEN;
 
@@ -268,7 +265,7 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
                         @SuppressWarnings("unchecked")
                         private <S, T> FT capView(final Pair<K, ?> s, final TypedOptic<S, T, FT, FR> optic) {
-                            return Optics.toLens(optic.upCast(Cartesian.Mu.TYPE_TOKEN).orElseThrow(IllegalArgumentException::new)).view((S) s.getSecond());
+                            return optic.lens().orElseThrow(IllegalArgumentException::new).view((S) s.getSecond());
                         }
 
                         @Override
@@ -279,7 +276,7 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
                         @SuppressWarnings("unchecked")
                         private <S, T> Pair<K, ?> capUpdate(final FR b, final Pair<K, ?> s, final TypedOptic<S, T, FT, FR> optic) {
-                            return Pair.of(s.getFirst(), Optics.toLens(optic.upCast(Cartesian.Mu.TYPE_TOKEN).orElseThrow(IllegalArgumentException::new)).update(b, (S) s.getSecond()));
+                            return Pair.of(s.getFirst(), optic.lens().orElseThrow(IllegalArgumentException::new).update(b, (S) s.getSecond()));
                         }
                     };
                 } else if (TypedOptic.instanceOf(bounds, AffineP.Mu.TYPE_TOKEN)) {
@@ -297,7 +294,7 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
                         @SuppressWarnings("unchecked")
                         private <S, T> Either<Pair<K, ?>, FT> capPreview(final Pair<K, ?> s, final TypedOptic<S, T, FT, FR> optic) {
-                            return Optics.toAffine(optic.upCast(AffineP.Mu.TYPE_TOKEN).orElseThrow(IllegalArgumentException::new)).preview((S) s.getSecond()).mapLeft(t -> (Pair<K, ?>) Pair.of(s.getFirst(), t));
+                            return optic.affine().orElseThrow(IllegalArgumentException::new).preview((S) s.getSecond()).mapLeft(t -> (Pair<K, ?>) Pair.of(s.getFirst(), t));
                         }
 
                         @Override
@@ -311,7 +308,7 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
                         @SuppressWarnings("unchecked")
                         private <S, T> Pair<K, ?> capSet(final FR b, final Pair<K, ?> s, final TypedOptic<S, T, FT, FR> optic) {
-                            return Pair.of(s.getFirst(), Optics.toAffine(optic.upCast(AffineP.Mu.TYPE_TOKEN).orElseThrow(IllegalArgumentException::new)).set(b, (S) s.getSecond()));
+                            return Pair.of(s.getFirst(), optic.affine().orElseThrow(IllegalArgumentException::new).set(b, (S) s.getSecond()));
                         }
                     };
                 } else if (TypedOptic.instanceOf(bounds, TraversalP.Mu.TYPE_TOKEN)) {
@@ -331,7 +328,7 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
                         @SuppressWarnings("unchecked")
                         private <S, T, F extends K1> App<F, Pair<K, ?>> capTraversal(final Applicative<F, ?> applicative, final FunctionType<FT, App<F, FR>> input, final Pair<K, ?> pair, final TypedOptic<S, T, FT, FR> optic) {
-                            final Traversal<S, T, FT, FR> traversal = Optics.toTraversal(optic.upCast(TraversalP.Mu.TYPE_TOKEN).orElseThrow(IllegalArgumentException::new));
+                            final Traversal<S, T, FT, FR> traversal = optic.traversal().orElseThrow(IllegalArgumentException::new);
                             return applicative.ap(value -> Pair.of(pair.getFirst(), value), traversal.wander(applicative, input).apply((S) pair.getSecond()));
                         }
                     };
@@ -447,7 +444,7 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
             @SuppressWarnings("unchecked")
             private <A, B> Pair<K, B> capRuleApply(final DynamicOps<?> ops, final Pair<K, ?> input, final RewriteResult<A, B> result) {
-                return input.mapSecond(v -> result.view().function().evalCached().apply(ops).apply((A) v));
+                return input.mapSecond(v -> result.view().function().evalCached(ops).apply((A) v));
             }
 
             @Override
@@ -0,0 +1,116 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reads {@link BinaryOps} values from memory-mapped files and writes them back out.
+ *
+ * Mapped values are never copied to the heap: {@link BinaryOps} only reads the headers and values it navigates to,
+ * so only the pages those touch are loaded. For the same reason, only the top level header is checked when a value is
+ * mapped; nested values are checked as they are navigated to, see {@link BinaryValue}. A mapping stays valid for as long as any value read from it is reachable.
+ * Files larger than a single mapping are handled as a sequence of top level values, each mapped window holding
+ * as many whole values as fit.
+ */
+public final class BinaryFiles {
+    private static final int WINDOW_SIZE = 1 << 30;
+
+    private BinaryFiles() {
+    }
+
+    /**
+     * Maps a file holding exactly one value.
+     */
+    public static BinaryValue map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map as one value: " + path + " (" + size + " bytes)");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final BinaryValue value = read(buffer, path, 0);
+            if (buffer.hasRemaining()) {
+                throw new IOException("Trailing data after value in " + path + " at " + buffer.position());
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Maps a file made of consecutive values, and passes each of them to {@code consumer} in order.
+     */
+    public static void forEachValue(final Path path, final Consumer<BinaryValue> consumer) throws IOException {
+        readValues(path, consumer::accept);
+    }
+
+    /**
+     * Reads every value of {@code input}, and writes the result of {@code function} for each of them to {@code output}.
+     */
+    public static void transform(final Path input, final Path output, final UnaryOperator<BinaryValue> function) throws IOException {
+        try (final FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            readValues(input, value -> write(channel, function.apply(value)));
+        }
+    }
+
+    /**
+     * Writes the encoding of {@code value} to {@code channel}.
+     */
+    public static void write(final WritableByteChannel channel, final BinaryValue value) throws IOException {
+        final ByteBuffer buffer = value.toByteBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readValues(final Path path, final ValueConsumer consumer) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            int windowSize = WINDOW_SIZE;
+            while (position < size) {
+                final long length = Math.min(size - position, windowSize);
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int next;
+                while ((next = sizeAt(window, path, position)) != -1 && next <= window.remaining()) {
+                    consumer.accept(read(window, path, position));
+                }
+                if (window.position() == 0) {
+                    // the first value does not fit the window, grow it
+                    if (next == -1 || length == size - position) {
+                        throw new IOException("Truncated value in " + path + " at " + position);
+                    }
+                    windowSize = next;
+                    continue;
+                }
+                position += window.position();
+                windowSize = WINDOW_SIZE;
+            }
+        }
+    }
+
+    private static int sizeAt(final ByteBuffer buffer, final Path path, final long windowStart) throws IOException {
+        try {
+            return BinaryValue.sizeAt(buffer);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Malformed value in " + path + " at " + (windowStart + buffer.position()), e);
+        }
+    }
+
+    private static BinaryValue read(final ByteBuffer buffer, final Path path, final long windowStart) throws IOException {
+        final long position = windowStart + buffer.position();
+        return BinaryValue.readLazily(buffer).getOrThrow(error -> new IOException("Malformed value in " + path + " at " + position + ": " + error));
+    }
+
+    private interface ValueConsumer {
+        void accept(BinaryValue value) throws IOException;
+    }
+}
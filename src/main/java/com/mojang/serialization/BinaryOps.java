@@ -0,0 +1,735 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ops for the compact tagged binary format of {@link BinaryValue}.
+ *
+ * Reading never copies: map lookups compare encoded keys in place, and primitive arrays are returned as views of
+ * the underlying buffer. Builders append straight into a growable buffer.
+ * When a map contains a key more than once, the last occurrence wins.
+ */
+public class BinaryOps implements DynamicOps<BinaryValue> {
+    public static final BinaryOps INSTANCE = new BinaryOps();
+
+    private static final BinaryValue EMPTY = new BinaryValue.Writer(1).putByte(BinaryValue.EMPTY).toValue();
+    private static final BinaryValue EMPTY_MAP = emptyContainer(BinaryValue.MAP);
+    private static final BinaryValue EMPTY_LIST = emptyContainer(BinaryValue.LIST);
+
+    protected BinaryOps() {
+    }
+
+    private static BinaryValue emptyContainer(final byte tag) {
+        final BinaryValue.Writer writer = new BinaryValue.Writer(BinaryValue.CONTAINER_HEADER);
+        writer.endContainer(writer.beginContainer(tag), 0);
+        return writer.toValue();
+    }
+
+    @Override
+    public BinaryValue empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public BinaryValue emptyMap() {
+        return EMPTY_MAP;
+    }
+
+    @Override
+    public BinaryValue emptyList() {
+        return EMPTY_LIST;
+    }
+
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final BinaryValue input) {
+        switch (input.tag()) {
+            case BinaryValue.EMPTY:
+                return outOps.empty();
+            case BinaryValue.BYTE:
+                return outOps.createByte(input.number().byteValue());
+            case BinaryValue.SHORT:
+                return outOps.createShort(input.number().shortValue());
+            case BinaryValue.INT:
+                return outOps.createInt(input.number().intValue());
+            case BinaryValue.LONG:
+                return outOps.createLong(input.number().longValue());
+            case BinaryValue.FLOAT:
+                return outOps.createFloat(input.number().floatValue());
+            case BinaryValue.DOUBLE:
+                return outOps.createDouble(input.number().doubleValue());
+            case BinaryValue.BOOLEAN:
+                return outOps.createBoolean(input.booleanValue());
+            case BinaryValue.STRING:
+                return outOps.createString(input.stringValue());
+            case BinaryValue.LIST:
+                return convertList(outOps, input);
+            case BinaryValue.MAP:
+                return convertMap(outOps, input);
+            case BinaryValue.BYTE_ARRAY:
+                return outOps.createByteList(input.payload());
+            case BinaryValue.INT_ARRAY:
+                return outOps.createIntArray(getIntArray(input).getOrThrow());
+            case BinaryValue.LONG_ARRAY:
+                return outOps.createLongArray(getLongArray(input).getOrThrow());
+            default:
+                throw new IllegalStateException("Don't know how to convert " + input);
+        }
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final BinaryValue input) {
+        if (input.isNumber()) {
+            return DataResult.success(input.number());
+        }
+        if (input.tag() == BinaryValue.BOOLEAN) {
+            return DataResult.success(input.booleanValue() ? 1 : 0);
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public BinaryValue createNumeric(final Number value) {
+        if (value instanceof Byte) {
+            return createByte(value.byteValue());
+        }
+        if (value instanceof Short) {
+            return createShort(value.shortValue());
+        }
+        if (value instanceof Integer) {
+            return createInt(value.intValue());
+        }
+        if (value instanceof Long) {
+            return createLong(value.longValue());
+        }
+        if (value instanceof Float) {
+            return createFloat(value.floatValue());
+        }
+        return createDouble(value.doubleValue());
+    }
+
+    @Override
+    public BinaryValue createByte(final byte value) {
+        return new BinaryValue.Writer(2).putByte(BinaryValue.BYTE).putByte(value).toValue();
+    }
+
+    @Override
+    public BinaryValue createShort(final short value) {
+        return new BinaryValue.Writer(3).putByte(BinaryValue.SHORT).putShort(value).toValue();
+    }
+
+    @Override
+    public BinaryValue createInt(final int value) {
+        return new BinaryValue.Writer(5).putByte(BinaryValue.INT).putInt(value).toValue();
+    }
+
+    @Override
+    public BinaryValue createLong(final long value) {
+        return new BinaryValue.Writer(9).putByte(BinaryValue.LONG).putLong(value).toValue();
+    }
+
+    @Override
+    public BinaryValue createFloat(final float value) {
+        return new BinaryValue.Writer(5).putByte(BinaryValue.FLOAT).putInt(Float.floatToRawIntBits(value)).toValue();
+    }
+
+    @Override
+    public BinaryValue createDouble(final double value) {
+        return new BinaryValue.Writer(9).putByte(BinaryValue.DOUBLE).putLong(Double.doubleToRawLongBits(value)).toValue();
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final BinaryValue input) {
+        if (input.tag() == BinaryValue.BOOLEAN) {
+            return DataResult.success(input.booleanValue());
+        }
+        if (input.isNumber()) {
+            return DataResult.success(input.number().byteValue() != 0);
+        }
+        return DataResult.error(() -> "Not a boolean: " + input);
+    }
+
+    @Override
+    public BinaryValue createBoolean(final boolean value) {
+        return new BinaryValue.Writer(2).putByte(BinaryValue.BOOLEAN).putByte(value ? 1 : 0).toValue();
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final BinaryValue input) {
+        if (input.tag() == BinaryValue.STRING) {
+            return DataResult.success(input.stringValue());
+        }
+        return DataResult.error(() -> "Not a string: " + input);
+    }
+
+    @Override
+    public BinaryValue createString(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return new BinaryValue.Writer(5 + bytes.length).putByte(BinaryValue.STRING).putInt(bytes.length).put(bytes).toValue();
+    }
+
+    @Override
+    public DataResult<BinaryValue> mergeToList(final BinaryValue list, final BinaryValue value) {
+        return mergeToList(list, List.of(value));
+    }
+
+    @Override
+    public DataResult<BinaryValue> mergeToList(final BinaryValue list, final List<BinaryValue> values) {
+        final byte tag = list.tag();
+        if (tag != BinaryValue.EMPTY && tag != BinaryValue.LIST) {
+            return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+        }
+        final BinaryValue.Writer writer = new BinaryValue.Writer(list.size() + values.size() * 8);
+        final int start = writer.beginContainer(BinaryValue.LIST);
+        int count = 0;
+        if (tag == BinaryValue.LIST) {
+            final ByteBuffer payload = list.payload();
+            writer.put(payload, 0, payload.remaining());
+            count = list.count();
+        }
+        for (final BinaryValue value : values) {
+            value.writeTo(writer);
+        }
+        writer.endContainer(start, count + values.size());
+        return DataResult.success(writer.toValue());
+    }
+
+    @Override
+    public DataResult<BinaryValue> mergeToMap(final BinaryValue map, final BinaryValue key, final BinaryValue value) {
+        return mergeEntries(map, List.of(Pair.of(key, value)));
+    }
+
+    @Override
+    public DataResult<BinaryValue> mergeToMap(final BinaryValue map, final Map<BinaryValue, BinaryValue> values) {
+        final List<Pair<BinaryValue, BinaryValue>> entries = new ArrayList<>(values.size());
+        values.forEach((key, value) -> entries.add(Pair.of(key, value)));
+        return mergeEntries(map, entries);
+    }
+
+    @Override
+    public DataResult<BinaryValue> mergeToMap(final BinaryValue map, final MapLike<BinaryValue> values) {
+        final List<Pair<BinaryValue, BinaryValue>> entries = new ArrayList<>();
+        values.entries().forEach(entries::add);
+        return mergeEntries(map, entries);
+    }
+
+    private DataResult<BinaryValue> mergeEntries(final BinaryValue map, final List<Pair<BinaryValue, BinaryValue>> entries) {
+        final byte tag = map.tag();
+        if (tag != BinaryValue.EMPTY && tag != BinaryValue.MAP) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        final Set<BinaryValue> replaced = new ObjectOpenHashSet<>(entries.size());
+        for (final Pair<BinaryValue, BinaryValue> entry : entries) {
+            replaced.add(entry.getFirst());
+        }
+
+        final BinaryValue.Writer writer = new BinaryValue.Writer(map.size() + entries.size() * 16);
+        final int start = writer.beginContainer(BinaryValue.MAP);
+        int count = 0;
+        if (tag == BinaryValue.MAP) {
+            for (int position = map.firstElement(); position < map.end(); ) {
+                final BinaryValue key = map.valueAt(position);
+                final BinaryValue value = map.valueAt(position + key.size());
+                position += key.size() + value.size();
+                if (!replaced.contains(key)) {
+                    key.writeTo(writer);
+                    value.writeTo(writer);
+                    count++;
+                }
+            }
+        }
+        count += writeEntries(writer, entries);
+        writer.endContainer(start, count);
+        return DataResult.success(writer.toValue());
+    }
+
+    /**
+     * Writes {@code entries} keeping only the last value of each key, returns the number of entries written.
+     */
+    private static int writeEntries(final BinaryValue.Writer writer, final List<Pair<BinaryValue, BinaryValue>> entries) {
+        final Set<BinaryValue> written = new ObjectOpenHashSet<>(entries.size());
+        int count = 0;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (!written.add(entries.get(i).getFirst())) {
+                entries.set(i, null);
+            }
+        }
+        for (final Pair<BinaryValue, BinaryValue> entry : entries) {
+            if (entry != null) {
+                entry.getFirst().writeTo(writer);
+                entry.getSecond().writeTo(writer);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public DataResult<Stream<Pair<BinaryValue, BinaryValue>>> getMapValues(final BinaryValue input) {
+        if (input.tag() == BinaryValue.MAP) {
+            return DataResult.success(entries(input));
+        }
+        return DataResult.error(() -> "Not a map: " + input);
+    }
+
+    @Override
+    public DataResult<Consumer<BiConsumer<BinaryValue, BinaryValue>>> getMapEntries(final BinaryValue input) {
+        if (input.tag() == BinaryValue.MAP) {
+            return DataResult.success(consumer -> {
+                for (int position = input.firstElement(); position < input.end(); ) {
+                    final BinaryValue key = input.valueAt(position);
+                    final BinaryValue value = input.valueAt(position + key.size());
+                    position += key.size() + value.size();
+                    consumer.accept(key, value);
+                }
+            });
+        }
+        return DataResult.error(() -> "Not a map: " + input);
+    }
+
+    @Override
+    public DataResult<MapLike<BinaryValue>> getMap(final BinaryValue input) {
+        if (input.tag() != BinaryValue.MAP) {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+        return DataResult.success(new MapLike<>() {
+            @Nullable
+            @Override
+            public BinaryValue get(final BinaryValue key) {
+                BinaryValue result = null;
+                for (int position = input.firstElement(); position < input.end(); ) {
+                    final BinaryValue entryKey = input.valueAt(position);
+                    final BinaryValue value = input.valueAt(position + entryKey.size());
+                    position += entryKey.size() + value.size();
+                    if (entryKey.equals(key)) {
+                        result = value;
+                    }
+                }
+                return result;
+            }
+
+            @Nullable
+            @Override
+            public BinaryValue get(final String key) {
+                final byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                BinaryValue result = null;
+                for (int position = input.firstElement(); position < input.end(); ) {
+                    final BinaryValue entryKey = input.valueAt(position);
+                    final BinaryValue value = input.valueAt(position + entryKey.size());
+                    position += entryKey.size() + value.size();
+                    if (entryKey.isString(bytes)) {
+                        result = value;
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public Stream<Pair<BinaryValue, BinaryValue>> entries() {
+                return BinaryOps.entries(input);
+            }
+
+            @Override
+            public void forEachString(final DynamicOps<BinaryValue> ops, final BiConsumer<String, BinaryValue> consumer) {
+                for (int position = input.firstElement(); position < input.end(); ) {
+                    final BinaryValue key = input.valueAt(position);
+                    final BinaryValue value = input.valueAt(position + key.size());
+                    position += key.size() + value.size();
+                    if (key.tag() == BinaryValue.STRING) {
+                        consumer.accept(key.stringValue(), value);
+                    }
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "MapLike[" + input + "]";
+            }
+        });
+    }
+
+    private static Stream<Pair<BinaryValue, BinaryValue>> entries(final BinaryValue map) {
+        final Iterator<Pair<BinaryValue, BinaryValue>> iterator = new Iterator<>() {
+            private int position = map.firstElement();
+
+            @Override
+            public boolean hasNext() {
+                return position < map.end();
+            }
+
+            @Override
+            public Pair<BinaryValue, BinaryValue> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final BinaryValue key = map.valueAt(position);
+                final BinaryValue value = map.valueAt(position + key.size());
+                position += key.size() + value.size();
+                return Pair.of(key, value);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, map.count(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * The elements of a list, decoded as they are consumed.
+     */
+    private static Stream<BinaryValue> elements(final BinaryValue container) {
+        final Iterator<BinaryValue> iterator = new Iterator<>() {
+            private int position = container.firstElement();
+
+            @Override
+            public boolean hasNext() {
+                return position < container.end();
+            }
+
+            @Override
+            public BinaryValue next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final BinaryValue value = container.valueAt(position);
+                position += value.size();
+                return value;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, container.count(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public BinaryValue createMap(final Stream<Pair<BinaryValue, BinaryValue>> map) {
+        final List<Pair<BinaryValue, BinaryValue>> entries = new ArrayList<>();
+        map.forEach(entries::add);
+        final BinaryValue.Writer writer = new BinaryValue.Writer(BinaryValue.CONTAINER_HEADER + entries.size() * 16);
+        final int start = writer.beginContainer(BinaryValue.MAP);
+        writer.endContainer(start, writeEntries(writer, entries));
+        return writer.toValue();
+    }
+
+    @Override
+    public DataResult<Stream<BinaryValue>> getStream(final BinaryValue input) {
+        switch (input.tag()) {
+            case BinaryValue.LIST:
+                return DataResult.success(elements(input));
+            case BinaryValue.BYTE_ARRAY:
+                return DataResult.success(IntStream.range(0, input.count()).mapToObj(i -> createByte(input.byteAt(i))));
+            case BinaryValue.INT_ARRAY:
+                return DataResult.success(intStream(input).mapToObj(this::createInt));
+            case BinaryValue.LONG_ARRAY:
+                return DataResult.success(longStream(input).mapToObj(this::createLong));
+            default:
+                return DataResult.error(() -> "Not a list: " + input);
+        }
+    }
+
+    @Override
+    public DataResult<Consumer<Consumer<BinaryValue>>> getList(final BinaryValue input) {
+        if (input.tag() == BinaryValue.LIST) {
+            return DataResult.success(consumer -> {
+                for (int position = input.firstElement(); position < input.end(); ) {
+                    final BinaryValue value = input.valueAt(position);
+                    position += value.size();
+                    consumer.accept(value);
+                }
+            });
+        }
+        return getStream(input).map(stream -> stream::forEach);
+    }
+
+    @Override
+    public BinaryValue createList(final Stream<BinaryValue> input) {
+        final BinaryValue.Writer writer = new BinaryValue.Writer(64);
+        final int start = writer.beginContainer(BinaryValue.LIST);
+        final int[] count = {0};
+        input.forEach(value -> {
+            value.writeTo(writer);
+            count[0]++;
+        });
+        writer.endContainer(start, count[0]);
+        return writer.toValue();
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final BinaryValue input) {
+        if (input.tag() == BinaryValue.BYTE_ARRAY) {
+            return DataResult.success(input.payload());
+        }
+        return DynamicOps.super.getByteBuffer(input);
+    }
+
+    @Override
+    public BinaryValue createByteList(final ByteBuffer input) {
+        // whole buffer, to match the default method
+        final int length = input.capacity();
+        final BinaryValue.Writer writer = new BinaryValue.Writer(BinaryValue.ARRAY_HEADER + length);
+        writer.putByte(BinaryValue.BYTE_ARRAY).putInt(length).put(input, 0, length);
+        return writer.toValue();
+    }
+
+    @Override
+    public DataResult<byte[]> getByteArray(final BinaryValue input) {
+        if (input.tag() == BinaryValue.BYTE_ARRAY) {
+            final byte[] values = new byte[input.count()];
+            input.payload().get(values);
+            return DataResult.success(values);
+        }
+        return DynamicOps.super.getByteArray(input);
+    }
+
+    @Override
+    public BinaryValue createByteArray(final byte[] values) {
+        final BinaryValue.Writer writer = new BinaryValue.Writer(BinaryValue.ARRAY_HEADER + values.length);
+        writer.putByte(BinaryValue.BYTE_ARRAY).putInt(values.length).put(values);
+        return writer.toValue();
+    }
+
+    @Override
+    public DataResult<IntStream> getIntStream(final BinaryValue input) {
+        if (input.tag() == BinaryValue.INT_ARRAY) {
+            return DataResult.success(intStream(input));
+        }
+        return DynamicOps.super.getIntStream(input);
+    }
+
+    private static IntStream intStream(final BinaryValue input) {
+        return IntStream.range(0, input.count()).map(input::intAt);
+    }
+
+    @Override
+    public BinaryValue createIntList(final IntStream input) {
+        return createIntArray(input.toArray());
+    }
+
+    @Override
+    public DataResult<int[]> getIntArray(final BinaryValue input) {
+        if (input.tag() == BinaryValue.INT_ARRAY) {
+            final int[] values = new int[input.count()];
+            input.payload().asIntBuffer().get(values);
+            return DataResult.success(values);
+        }
+        return DynamicOps.super.getIntArray(input);
+    }
+
+    @Override
+    public BinaryValue createIntArray(final int[] values) {
+        final BinaryValue.Writer writer = new BinaryValue.Writer(BinaryValue.ARRAY_HEADER + values.length * Integer.BYTES);
+        writer.putByte(BinaryValue.INT_ARRAY).putInt(values.length);
+        for (final int value : values) {
+            writer.putInt(value);
+        }
+        return writer.toValue();
+    }
+
+    @Override
+    public DataResult<LongStream> getLongStream(final BinaryValue input) {
+        if (input.tag() == BinaryValue.LONG_ARRAY) {
+            return DataResult.success(longStream(input));
+        }
+        return DynamicOps.super.getLongStream(input);
+    }
+
+    private static LongStream longStream(final BinaryValue input) {
+        return IntStream.range(0, input.count()).mapToLong(input::longAt);
+    }
+
+    @Override
+    public BinaryValue createLongList(final LongStream input) {
+        return createLongArray(input.toArray());
+    }
+
+    @Override
+    public DataResult<long[]> getLongArray(final BinaryValue input) {
+        if (input.tag() == BinaryValue.LONG_ARRAY) {
+            final long[] values = new long[input.count()];
+            input.payload().asLongBuffer().get(values);
+            return DataResult.success(values);
+        }
+        return DynamicOps.super.getLongArray(input);
+    }
+
+    @Override
+    public BinaryValue createLongArray(final long[] values) {
+        final BinaryValue.Writer writer = new BinaryValue.Writer(BinaryValue.ARRAY_HEADER + values.length * Long.BYTES);
+        writer.putByte(BinaryValue.LONG_ARRAY).putInt(values.length);
+        for (final long value : values) {
+            writer.putLong(value);
+        }
+        return writer.toValue();
+    }
+
+    @Override
+    public BinaryValue remove(final BinaryValue input, final String key) {
+        if (input.tag() != BinaryValue.MAP) {
+            return input;
+        }
+        final byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        final BinaryValue.Writer writer = new BinaryValue.Writer(input.size());
+        final int start = writer.beginContainer(BinaryValue.MAP);
+        int count = 0;
+        for (int position = input.firstElement(); position < input.end(); ) {
+            final BinaryValue entryKey = input.valueAt(position);
+            final BinaryValue value = input.valueAt(position + entryKey.size());
+            position += entryKey.size() + value.size();
+            if (!entryKey.isString(bytes)) {
+                entryKey.writeTo(writer);
+                value.writeTo(writer);
+                count++;
+            }
+        }
+        if (count == input.count()) {
+            return input;
+        }
+        writer.endContainer(start, count);
+        return writer.toValue();
+    }
+
+    @Override
+    public ListBuilder<BinaryValue> listBuilder() {
+        return new BinaryListBuilder();
+    }
+
+    @Override
+    public RecordBuilder<BinaryValue> mapBuilder() {
+        return new BinaryRecordBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "Binary";
+    }
+
+    /**
+     * Appends elements straight into the encoding of the list.
+     */
+    private final class BinaryListBuilder implements ListBuilder<BinaryValue> {
+        private DataResult<Elements> builder = DataResult.success(new Elements(), Lifecycle.stable());
+
+        @Override
+        public DynamicOps<BinaryValue> ops() {
+            return BinaryOps.this;
+        }
+
+        @Override
+        public ListBuilder<BinaryValue> add(final BinaryValue value) {
+            builder = builder.map(b -> b.add(value));
+            return this;
+        }
+
+        @Override
+        public ListBuilder<BinaryValue> add(final DataResult<BinaryValue> value) {
+            builder = builder.apply2stable(Elements::add, value);
+            return this;
+        }
+
+        @Override
+        public ListBuilder<BinaryValue> withErrorsFrom(final DataResult<?> result) {
+            builder = builder.flatMap(r -> result.map(v -> r));
+            return this;
+        }
+
+        @Override
+        public ListBuilder<BinaryValue> mapError(final UnaryOperator<String> onError) {
+            builder = builder.mapError(onError);
+            return this;
+        }
+
+        @Override
+        public DataResult<BinaryValue> build(final BinaryValue prefix) {
+            final DataResult<BinaryValue> result = builder.flatMap(b -> {
+                b.writer.endContainer(0, b.count);
+                final BinaryValue elements = b.writer.toValue();
+                if (prefix.tag() == BinaryValue.EMPTY) {
+                    return DataResult.success(elements);
+                }
+                return getStream(elements).flatMap(stream -> mergeToList(prefix, stream.collect(Collectors.toList())));
+            });
+            builder = DataResult.success(new Elements(), Lifecycle.stable());
+            return result;
+        }
+    }
+
+    private static final class Elements {
+        private final BinaryValue.Writer writer = new BinaryValue.Writer(64);
+        private int count;
+
+        private Elements() {
+            writer.beginContainer(BinaryValue.LIST);
+        }
+
+        private Elements add(final BinaryValue value) {
+            value.writeTo(writer);
+            count++;
+            return this;
+        }
+    }
+
+    /**
+     * Appends entries straight into the encoding of the map, duplicate keys are only resolved when there are any.
+     */
+    private final class BinaryRecordBuilder extends RecordBuilder.AbstractUniversalBuilder<BinaryValue, BinaryRecordBuilder.Entries> {
+        private BinaryRecordBuilder() {
+            super(BinaryOps.this);
+        }
+
+        @Override
+        protected Entries initBuilder() {
+            return new Entries();
+        }
+
+        @Override
+        protected Entries append(final BinaryValue key, final BinaryValue value, final Entries builder) {
+            if (!builder.keys.add(key)) {
+                builder.duplicates = true;
+            }
+            key.writeTo(builder.writer);
+            value.writeTo(builder.writer);
+            builder.count++;
+            return builder;
+        }
+
+        @Override
+        protected DataResult<BinaryValue> build(final Entries builder, final BinaryValue prefix) {
+            final byte tag = prefix.tag();
+            if (tag == BinaryValue.EMPTY && !builder.duplicates) {
+                builder.writer.endContainer(0, builder.count);
+                return DataResult.success(builder.writer.toValue());
+            }
+            builder.writer.endContainer(0, builder.count);
+            final BinaryValue entries = builder.writer.toValue();
+            return getMap(entries).flatMap(map -> mergeToMap(tag == BinaryValue.EMPTY ? emptyMap() : prefix, map));
+        }
+
+        private final class Entries {
+            private final BinaryValue.Writer writer = new BinaryValue.Writer(64);
+            private final Set<BinaryValue> keys = new ObjectOpenHashSet<>();
+            private int count;
+            private boolean duplicates;
+
+            private Entries() {
+                writer.beginContainer(BinaryValue.MAP);
+            }
+        }
+    }
+}
@@ -0,0 +1,501 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A value in the binary format of {@link BinaryOps}: a view of one encoded value inside a {@link ByteBuffer}.
+ *
+ * Every value starts with a one byte tag and is self-delimiting, so nested values are views into the same buffer
+ * and are only decoded when read. Layout, big-endian:
+ * <ul>
+ *     <li>empty: tag</li>
+ *     <li>byte, boolean, short, int, long, float, double: tag, value</li>
+ *     <li>string: tag, int byte length, UTF-8 bytes</li>
+ *     <li>list, map: tag, int payload length, int count, elements (maps alternate keys and values)</li>
+ *     <li>byte, int and long arrays: tag, int count, elements</li>
+ * </ul>
+ * Values are immutable, equality compares their encoding. Every value checks its own header against the end of the
+ * value holding it when it is navigated to, so navigating never runs past the end of an encoding; a malformed nested
+ * value throws {@link IllegalArgumentException} when reached. {@link #read} checks the whole value up front instead.
+ */
+public final class BinaryValue {
+    static final byte EMPTY = 0;
+    static final byte BYTE = 1;
+    static final byte SHORT = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte FLOAT = 5;
+    static final byte DOUBLE = 6;
+    static final byte BOOLEAN = 7;
+    static final byte STRING = 8;
+    static final byte LIST = 9;
+    static final byte MAP = 10;
+    static final byte BYTE_ARRAY = 11;
+    static final byte INT_ARRAY = 12;
+    static final byte LONG_ARRAY = 13;
+
+    // tag, payload length, count
+    static final int CONTAINER_HEADER = 9;
+    // tag, count
+    static final int ARRAY_HEADER = 5;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int size;
+    private int hashCode;
+
+    /**
+     * The value at {@code offset}, whose encoding must end before {@code limit}.
+     * Only the header is checked, nested values are checked when they are navigated to.
+     */
+    BinaryValue(final ByteBuffer buffer, final int offset, final int limit) {
+        this.buffer = buffer;
+        this.offset = offset;
+        size = checkedHeaderSize(buffer, offset, limit);
+    }
+
+    /**
+     * Reads the value starting at the position of {@code buffer} without copying it, and advances the position past it.
+     * The buffer must not be modified while the value is in use.
+     * The whole value is checked first, so that navigating it later can not run past its end: a truncated value, a
+     * negative or overflowing length, or a container whose elements do not fill it exactly is an error, and leaves
+     * the position of {@code buffer} where it was.
+     */
+    public static DataResult<BinaryValue> read(final ByteBuffer buffer) {
+        final ByteBuffer view = buffer.slice().asReadOnlyBuffer();
+        final DataResult<Integer> size = checkedSize(view, view.limit());
+        size.result().ifPresent(s -> buffer.position(buffer.position() + s));
+        return size.map(s -> new BinaryValue(view, 0, s));
+    }
+
+    /**
+     * Same as {@link #read}, but only checks the header of the value, so that reading a value does not touch all of
+     * its encoding. Nested values are checked as they are navigated to.
+     */
+    static DataResult<BinaryValue> readLazily(final ByteBuffer buffer) {
+        final ByteBuffer view = buffer.slice().asReadOnlyBuffer();
+        final BinaryValue value;
+        try {
+            value = new BinaryValue(view, 0, view.limit());
+        } catch (final IllegalArgumentException e) {
+            return DataResult.error(e::getMessage);
+        }
+        buffer.position(buffer.position() + value.size);
+        return DataResult.success(value);
+    }
+
+    private static int checkedHeaderSize(final ByteBuffer buffer, final int offset, final int limit) {
+        if (offset >= limit) {
+            throw new IllegalArgumentException("Truncated binary value at " + offset);
+        }
+        final byte tag = buffer.get(offset);
+        final int header = tag == LIST || tag == MAP ? CONTAINER_HEADER : tag >= STRING ? ARRAY_HEADER : 1;
+        if (limit - offset < header) {
+            throw new IllegalArgumentException("Truncated binary value header at " + offset);
+        }
+        final long size = sizeAt(buffer, offset);
+        if (size < header || size > limit - offset) {
+            throw new IllegalArgumentException("Invalid binary value at " + offset + ": needs " + size + " bytes, " + (limit - offset) + " left");
+        }
+        if (header == CONTAINER_HEADER && buffer.getInt(offset + 5) < 0) {
+            throw new IllegalArgumentException("Negative count " + buffer.getInt(offset + 5) + " at " + offset);
+        }
+        return (int) size;
+    }
+
+    /**
+     * Size of the well-formed value at the start of {@code buffer}, which must end before {@code limit}.
+     * Nested values are checked without recursing, open containers are kept on an explicit stack.
+     */
+    private static DataResult<Integer> checkedSize(final ByteBuffer buffer, final int limit) {
+        // end of each open container, and the number of values it still has to hold
+        final IntArrayList ends = new IntArrayList();
+        final LongArrayList remaining = new LongArrayList();
+        int position = 0;
+        while (true) {
+            final int end = ends.isEmpty() ? limit : ends.topInt();
+            if (!ends.isEmpty() && remaining.topLong() == 0) {
+                if (position != end) {
+                    final int at = position;
+                    return DataResult.error(() -> "Container ending at " + end + " holds more than its count, next value at " + at);
+                }
+                ends.popInt();
+                remaining.popLong();
+                if (ends.isEmpty()) {
+                    return DataResult.success(position);
+                }
+                remaining.push(remaining.popLong() - 1);
+                continue;
+            }
+
+            final int at = position;
+            if (end - position < 1) {
+                return DataResult.error(() -> "Truncated binary value at " + at);
+            }
+            final byte tag = buffer.get(position);
+            final long size;
+            long count = -1;
+            switch (tag) {
+                case EMPTY:
+                    size = 1;
+                    break;
+                case BYTE:
+                case BOOLEAN:
+                    size = 2;
+                    break;
+                case SHORT:
+                    size = 3;
+                    break;
+                case INT:
+                case FLOAT:
+                    size = 5;
+                    break;
+                case LONG:
+                case DOUBLE:
+                    size = 9;
+                    break;
+                case STRING:
+                case BYTE_ARRAY:
+                case INT_ARRAY:
+                case LONG_ARRAY: {
+                    if (end - position < ARRAY_HEADER) {
+                        return DataResult.error(() -> "Truncated binary value header at " + at);
+                    }
+                    final int length = buffer.getInt(position + 1);
+                    if (length < 0) {
+                        return DataResult.error(() -> "Negative length " + length + " at " + at);
+                    }
+                    size = ARRAY_HEADER + (long) length * (tag == INT_ARRAY ? Integer.BYTES : tag == LONG_ARRAY ? Long.BYTES : 1);
+                    break;
+                }
+                case LIST:
+                case MAP: {
+                    if (end - position < CONTAINER_HEADER) {
+                        return DataResult.error(() -> "Truncated binary value header at " + at);
+                    }
+                    final int length = buffer.getInt(position + 1);
+                    final int elements = buffer.getInt(position + 5);
+                    if (length < 0 || elements < 0) {
+                        return DataResult.error(() -> "Negative length " + length + " or count " + elements + " at " + at);
+                    }
+                    size = CONTAINER_HEADER + (long) length;
+                    count = tag == MAP ? 2L * elements : elements;
+                    break;
+                }
+                default:
+                    return DataResult.error(() -> "Unknown binary value tag " + tag + " at " + at);
+            }
+            if (size > end - position) {
+                return DataResult.error(() -> "Truncated binary value at " + at + ": needs " + size + " bytes, " + (end - at) + " left");
+            }
+
+            if (count >= 0) {
+                ends.push(position + (int) size);
+                remaining.push(count);
+                position += CONTAINER_HEADER;
+                continue;
+            }
+            position += (int) size;
+            if (ends.isEmpty()) {
+                return DataResult.success(position);
+            }
+            remaining.push(remaining.popLong() - 1);
+        }
+    }
+
+    /**
+     * The encoding of this value, as a read-only buffer sharing its content.
+     */
+    public ByteBuffer toByteBuffer() {
+        return slice(0, size);
+    }
+
+    /**
+     * Length of the encoding of this value in bytes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Length of the encoding of the value at the position of {@code buffer}, or -1 if its header is not in the buffer.
+     * Only the header is looked at, see {@link #read} for checking the whole value.
+     *
+     * @throws IllegalArgumentException if the header has an unknown tag, or a length that is negative or overflows
+     */
+    static int sizeAt(final ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        final int header = buffer.get(buffer.position()) >= STRING ? 5 : 1;
+        if (buffer.remaining() < header) {
+            return -1;
+        }
+        final long size = sizeAt(buffer, buffer.position());
+        if (size < header || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid length " + buffer.getInt(buffer.position() + 1) + " at " + buffer.position());
+        }
+        return (int) size;
+    }
+
+    private static long sizeAt(final ByteBuffer buffer, final int offset) {
+        final byte tag = buffer.get(offset);
+        switch (tag) {
+            case EMPTY:
+                return 1;
+            case BYTE:
+            case BOOLEAN:
+                return 2;
+            case SHORT:
+                return 3;
+            case INT:
+            case FLOAT:
+                return 5;
+            case LONG:
+            case DOUBLE:
+                return 9;
+            case STRING:
+                return 5L + buffer.getInt(offset + 1);
+            case LIST:
+            case MAP:
+                return CONTAINER_HEADER + (long) buffer.getInt(offset + 1);
+            case BYTE_ARRAY:
+                return ARRAY_HEADER + (long) buffer.getInt(offset + 1);
+            case INT_ARRAY:
+                return ARRAY_HEADER + (long) buffer.getInt(offset + 1) * Integer.BYTES;
+            case LONG_ARRAY:
+                return ARRAY_HEADER + (long) buffer.getInt(offset + 1) * Long.BYTES;
+            default:
+                throw new IllegalArgumentException("Unknown binary value tag " + tag + " at " + offset);
+        }
+    }
+
+    byte tag() {
+        return buffer.get(offset);
+    }
+
+    boolean isNumber() {
+        final byte tag = tag();
+        return tag >= BYTE && tag <= DOUBLE;
+    }
+
+    Number number() {
+        switch (tag()) {
+            case BYTE:
+                return buffer.get(offset + 1);
+            case SHORT:
+                return buffer.getShort(offset + 1);
+            case INT:
+                return buffer.getInt(offset + 1);
+            case LONG:
+                return buffer.getLong(offset + 1);
+            case FLOAT:
+                return buffer.getFloat(offset + 1);
+            case DOUBLE:
+                return buffer.getDouble(offset + 1);
+            default:
+                throw new IllegalStateException("Not a number: " + this);
+        }
+    }
+
+    boolean booleanValue() {
+        return buffer.get(offset + 1) != 0;
+    }
+
+    String stringValue() {
+        final int length = buffer.getInt(offset + 1);
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset + 5, length, StandardCharsets.UTF_8);
+        }
+        return StandardCharsets.UTF_8.decode(slice(5, length)).toString();
+    }
+
+    /**
+     * Whether this is a string whose UTF-8 encoding is {@code bytes}, without decoding it.
+     */
+    boolean isString(final byte[] bytes) {
+        if (tag() != STRING || buffer.getInt(offset + 1) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(offset + 5 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of elements of a list or array, or of entries of a map.
+     */
+    int count() {
+        final byte tag = tag();
+        return tag == LIST || tag == MAP ? buffer.getInt(offset + 5) : buffer.getInt(offset + 1);
+    }
+
+    int firstElement() {
+        return offset + CONTAINER_HEADER;
+    }
+
+    int end() {
+        return offset + size;
+    }
+
+    /**
+     * The value encoded at {@code position}, an absolute offset in the same buffer as this value.
+     */
+    BinaryValue valueAt(final int position) {
+        return new BinaryValue(buffer, position, end());
+    }
+
+    /**
+     * The payload of a list or map, or the elements of an array, as a read-only buffer sharing its content.
+     */
+    ByteBuffer payload() {
+        final byte tag = tag();
+        final int header = tag == LIST || tag == MAP ? CONTAINER_HEADER : ARRAY_HEADER;
+        return slice(header, size - header);
+    }
+
+    int intAt(final int index) {
+        return buffer.getInt(offset + ARRAY_HEADER + index * Integer.BYTES);
+    }
+
+    long longAt(final int index) {
+        return buffer.getLong(offset + ARRAY_HEADER + index * Long.BYTES);
+    }
+
+    byte byteAt(final int index) {
+        return buffer.get(offset + ARRAY_HEADER + index);
+    }
+
+    private ByteBuffer slice(final int from, final int length) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(offset + from + length).position(offset + from);
+        return duplicate.slice().asReadOnlyBuffer();
+    }
+
+    void writeTo(final Writer writer) {
+        writer.put(buffer, offset, size);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof BinaryValue)) {
+            return false;
+        }
+        final BinaryValue that = (BinaryValue) obj;
+        return size == that.size && hashCode() == that.hashCode() && toByteBuffer().equals(that.toByteBuffer());
+    }
+
+    @Override
+    public int hashCode() {
+        if (hashCode == 0) {
+            hashCode = toByteBuffer().hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return BinaryOps.INSTANCE.convertTo(JsonOps.INSTANCE, this).toString();
+    }
+
+    /**
+     * Growable buffer values are encoded into.
+     */
+    static final class Writer {
+        private byte[] bytes;
+        private int size;
+
+        Writer(final int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        Writer putByte(final int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+            return this;
+        }
+
+        Writer putShort(final int value) {
+            ensureCapacity(2);
+            bytes[size++] = (byte) (value >> 8);
+            bytes[size++] = (byte) value;
+            return this;
+        }
+
+        Writer putInt(final int value) {
+            ensureCapacity(4);
+            setInt(size, value);
+            size += 4;
+            return this;
+        }
+
+        Writer putLong(final long value) {
+            putInt((int) (value >> 32));
+            return putInt((int) value);
+        }
+
+        Writer put(final byte[] value) {
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+            return this;
+        }
+
+        Writer put(final ByteBuffer source, final int offset, final int length) {
+            ensureCapacity(length);
+            source.duplicate().position(offset).get(bytes, size, length);
+            size += length;
+            return this;
+        }
+
+        void setInt(final int position, final int value) {
+            bytes[position] = (byte) (value >> 24);
+            bytes[position + 1] = (byte) (value >> 16);
+            bytes[position + 2] = (byte) (value >> 8);
+            bytes[position + 3] = (byte) value;
+        }
+
+        /**
+         * Starts a list or map, returns the position to pass to {@link #endContainer}.
+         */
+        int beginContainer(final byte tag) {
+            final int start = size;
+            putByte(tag);
+            putInt(0);
+            putInt(0);
+            return start;
+        }
+
+        void endContainer(final int start, final int count) {
+            setInt(start + 1, size - start - CONTAINER_HEADER);
+            setInt(start + 5, count);
+        }
+
+        BinaryValue toValue() {
+            return new BinaryValue(ByteBuffer.wrap(bytes, 0, size).slice().asReadOnlyBuffer(), 0, size);
+        }
+    }
+}
@@ -672,12 +672,13 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
         @Override
         public <T> DataResult<IntStream> read(final DynamicOps<T> ops, final T input) {
             return ops
-                .getIntStream(input);
+                .getIntArray(input)
+                .map(IntStream::of);
         }
 
         @Override
         public <T> T write(final DynamicOps<T> ops, final IntStream value) {
-            return ops.createIntList(value);
+            return ops.createIntArray(value.toArray());
         }
 
         @Override
@@ -690,12 +691,13 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
         @Override
         public <T> DataResult<LongStream> read(final DynamicOps<T> ops, final T input) {
             return ops
-                .getLongStream(input);
+                .getLongArray(input)
+                .map(LongStream::of);
         }
 
         @Override
         public <T> T write(final DynamicOps<T> ops, final LongStream value) {
-            return ops.createLongList(value);
+            return ops.createLongArray(value.toArray());
         }
 
         @Override
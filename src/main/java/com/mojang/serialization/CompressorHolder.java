@@ -2,16 +2,26 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
+import com.google.common.collect.MapMaker;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 
 public abstract class CompressorHolder implements Compressable {
-    private final Map<DynamicOps<?>, KeyCompressor<?>> compressors = new Object2ObjectArrayMap<>();
+    // weak identity keys, safe to share between threads; compressors are immutable once built and only hold their ops weakly
+    private final Map<DynamicOps<?>, KeyCompressor<?>> compressors = new MapMaker().weakKeys().makeMap();
+    @Nullable
+    private volatile KeyCompressor<?> lastCompressor;
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> KeyCompressor<T> compressor(final DynamicOps<T> ops) {
-        return (KeyCompressor<T>) compressors.computeIfAbsent(ops, k -> new KeyCompressor<>(ops, keys(ops)));
+        final KeyCompressor<?> last = lastCompressor;
+        if (last != null && last.ops() == ops) {
+            return (KeyCompressor<T>) last;
+        }
+        final KeyCompressor<T> compressor = (KeyCompressor<T>) compressors.computeIfAbsent(ops, k -> new KeyCompressor<>(ops, keys(ops)));
+        lastCompressor = compressor;
+        return compressor;
     }
 }
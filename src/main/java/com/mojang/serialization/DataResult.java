@@ -6,7 +6,11 @@ import com.mojang.datafixers.kinds.App;
 import com.mojang.datafixers.kinds.Applicative;
 import com.mojang.datafixers.kinds.K1;
 import com.mojang.datafixers.util.Function3;
+import com.mojang.datafixers.util.Unit;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -38,7 +42,7 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
     }
 
     static <R> DataResult<R> success(final R result, final Lifecycle lifecycle) {
-        return new Success<>(result, lifecycle);
+        return Success.of(result, lifecycle);
     }
 
     static <R> DataResult<R> error(final Supplier<String> message, final R partialResult, final Lifecycle lifecycle) {
@@ -103,10 +107,16 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
     <R2> DataResult<R2> ap(DataResult<Function<R, R2>> functionResult);
 
     default <R2, S> DataResult<S> apply2(final BiFunction<R, R2, S> function, final DataResult<R2> second) {
+        if (this instanceof Success && second instanceof Success) {
+            return new Success<>(function.apply(((Success<R>) this).value, ((Success<R2>) second).value), Lifecycle.experimental());
+        }
         return unbox(instance().apply2(function, this, second));
     }
 
     default <R2, S> DataResult<S> apply2stable(final BiFunction<R, R2, S> function, final DataResult<R2> second) {
+        if (this instanceof Success && second instanceof Success) {
+            return new Success<>(function.apply(((Success<R>) this).value, ((Success<R2>) second).value), lifecycle().add(second.lifecycle()));
+        }
         final Applicative<DataResult.Mu, DataResult.Instance.Mu> instance = instance();
         final DataResult<BiFunction<R, R2, S>> f = unbox(instance.point(function)).setLifecycle(Lifecycle.stable());
         return unbox(instance.ap2(f, this, second));
@@ -135,6 +145,10 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
     }
 
     final class Success<R> implements DataResult<R> {
+        // shared results for Unit, booleans and the boxed integers of Integer.valueOf's cache, by lifecycle
+        private static final int SMALL_INT_OFFSET = 3 + 128;
+        private static final Success<?>[] SHARED_EXPERIMENTAL = sharedResults(Lifecycle.experimental());
+        private static final Success<?>[] SHARED_STABLE = sharedResults(Lifecycle.stable());
 
         private final R value;
         private final Lifecycle lifecycle;
@@ -144,6 +158,49 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
             this.lifecycle = lifecycle;
         }
 
+        private static Success<?>[] sharedResults(final Lifecycle lifecycle) {
+            final Success<?>[] results = new Success<?>[SMALL_INT_OFFSET + 128];
+            results[0] = new Success<>(Unit.INSTANCE, lifecycle);
+            results[1] = new Success<>(Boolean.FALSE, lifecycle);
+            results[2] = new Success<>(Boolean.TRUE, lifecycle);
+            for (int i = -128; i < 128; i++) {
+                results[SMALL_INT_OFFSET + i] = new Success<>(Integer.valueOf(i), lifecycle);
+            }
+            return results;
+        }
+
+        /**
+         * Returns a shared instance for common values, otherwise a new one.
+         * Only values identical to the shared ones are replaced, so the result always holds {@code value} itself.
+         */
+        @SuppressWarnings("unchecked")
+        static <R> Success<R> of(final R value, final Lifecycle lifecycle) {
+            final Success<?>[] shared = lifecycle == Lifecycle.experimental() ? SHARED_EXPERIMENTAL : lifecycle == Lifecycle.stable() ? SHARED_STABLE : null;
+            if (shared != null) {
+                final int index = sharedIndex(value);
+                if (index != -1) {
+                    return (Success<R>) shared[index];
+                }
+            }
+            return new Success<>(value, lifecycle);
+        }
+
+        private static int sharedIndex(final Object value) {
+            if (value == Unit.INSTANCE) {
+                return 0;
+            } else if (value == Boolean.FALSE) {
+                return 1;
+            } else if (value == Boolean.TRUE) {
+                return 2;
+            } else if (value instanceof Integer) {
+                final int i = (Integer) value;
+                if (i >= -128 && i < 128 && value == Integer.valueOf(i)) {
+                    return SMALL_INT_OFFSET + i;
+                }
+            }
+            return -1;
+        }
+
         public R value() {
             return value;
         }
@@ -189,7 +246,7 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
 
         @Override
         public <T> DataResult<T> map(final Function<? super R, ? extends T> function) {
-            return new Success<>(function.apply(value), lifecycle);
+            return of(function.apply(value), lifecycle);
         }
 
         @Override
@@ -251,7 +308,7 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
             if (this.lifecycle.equals(lifecycle)) {
                 return this;
             }
-            return new Success<>(value, lifecycle);
+            return of(value, lifecycle);
         }
 
         @Override
@@ -360,7 +417,7 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
         @Override
         public DataResult<R> promotePartial(final Consumer<String> onError) {
             onError.accept(messageSupplier.get());
-            return partialValue.<DataResult<R>>map(value -> new Success<>(value, lifecycle)).orElse(this);
+            return partialValue.<DataResult<R>>map(value -> Success.of(value, lifecycle)).orElse(this);
         }
 
         @Override
@@ -434,6 +491,76 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
         }
     }
 
+    /**
+     * Mutable accumulator of the lifecycles and errors of many results, for codecs that combine one result per element
+     * without creating an intermediate result per step.
+     *
+     * Messages are joined last to first, the order chained {@link #apply2stable} calls produce.
+     */
+    final class Collector {
+        private Lifecycle lifecycle;
+        @Nullable
+        private List<Supplier<String>> errors;
+
+        public Collector(final Lifecycle lifecycle) {
+            this.lifecycle = lifecycle;
+        }
+
+        /**
+         * Adds the lifecycle and error of {@code result}, returns whether it was a success.
+         */
+        public boolean add(final DataResult<?> result) {
+            lifecycle = lifecycle.add(result.lifecycle());
+            if (result instanceof Error) {
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                }
+                errors.add(((Error<?>) result).messageSupplier);
+                return false;
+            }
+            return true;
+        }
+
+        public boolean hasErrors() {
+            return errors != null;
+        }
+
+        public Lifecycle lifecycle() {
+            return lifecycle;
+        }
+
+        /**
+         * A success holding {@code value}, or an error with {@code value} as its partial result.
+         */
+        public <R> DataResult<R> build(final R value) {
+            if (errors == null) {
+                return Success.of(value, lifecycle);
+            }
+            return new Error<>(message(), Optional.of(value), lifecycle);
+        }
+
+        /**
+         * The error without a partial result, only valid if there were errors.
+         */
+        public <R> DataResult<R> buildWithoutValue() {
+            if (errors == null) {
+                throw new IllegalStateException("No errors collected");
+            }
+            return new Error<>(message(), Optional.empty(), lifecycle);
+        }
+
+        private Supplier<String> message() {
+            final List<Supplier<String>> messages = List.copyOf(errors);
+            return () -> {
+                String result = messages.get(0).get();
+                for (int i = 1; i < messages.size(); i++) {
+                    result = appendMessages(messages.get(i).get(), result);
+                }
+                return result;
+            };
+        }
+    }
+
     enum Instance implements Applicative<Mu, Instance.Mu> {
         INSTANCE;
 
@@ -466,13 +593,13 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
             final DataResult<B> rb = unbox(b);
 
             // for less recursion
-            if (fr.result().isPresent()
-                && ra.result().isPresent()
-                && rb.result().isPresent()
+            if (fr instanceof Success
+                && ra instanceof Success
+                && rb instanceof Success
             ) {
-                return new Success<>(fr.result().get().apply(
-                    ra.result().get(),
-                    rb.result().get()
+                return new Success<>(((Success<BiFunction<A, B, R>>) fr).value.apply(
+                    ((Success<A>) ra).value,
+                    ((Success<B>) rb).value
                 ), fr.lifecycle().add(ra.lifecycle()).add(rb.lifecycle()));
             }
 
@@ -487,15 +614,15 @@ public interface DataResult<R> extends App<DataResult.Mu, R> {
             final DataResult<T3> dr3 = unbox(t3);
 
             // for less recursion
-            if (fr.result().isPresent()
-                && dr1.result().isPresent()
-                && dr2.result().isPresent()
-                && dr3.result().isPresent()
+            if (fr instanceof Success
+                && dr1 instanceof Success
+                && dr2 instanceof Success
+                && dr3 instanceof Success
             ) {
-                return new Success<>(fr.result().get().apply(
-                    dr1.result().get(),
-                    dr2.result().get(),
-                    dr3.result().get()
+                return new Success<>(((Success<Function3<T1, T2, T3, R>>) fr).value.apply(
+                    ((Success<T1>) dr1).value,
+                    ((Success<T2>) dr2).value,
+                    ((Success<T3>) dr3).value
                 ), fr.lifecycle().add(dr1.lifecycle()).add(dr2.lifecycle()).add(dr3.lifecycle()));
             }
 
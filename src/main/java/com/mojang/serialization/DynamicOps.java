@@ -4,11 +4,15 @@ package com.mojang.serialization;
 
 import com.google.common.collect.ImmutableMap;
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -17,7 +21,6 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -153,15 +156,16 @@ public interface DynamicOps<T> {
 
     default DataResult<ByteBuffer> getByteBuffer(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = stream.collect(Collectors.toList());
-            if (list.stream().allMatch(element -> getNumberValue(element).isSuccess())) {
-                final ByteBuffer buffer = ByteBuffer.wrap(new byte[list.size()]);
-                for (int i = 0; i < list.size(); i++) {
-                    buffer.put(i, getNumberValue(list.get(i)).result().get().byteValue());
+            final ByteArrayList values = new ByteArrayList();
+            for (final Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                final Optional<Number> value = getNumberValue(iterator.next()).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not bytes: " + input);
                 }
-                return DataResult.success(buffer);
+                values.add(value.get().byteValue());
             }
-            return DataResult.error(() -> "Some elements are not bytes: " + input);
+            values.trim();
+            return DataResult.success(ByteBuffer.wrap(values.elements()));
         });
     }
 
@@ -169,14 +173,17 @@ public interface DynamicOps<T> {
         return createList(IntStream.range(0, input.capacity()).mapToObj(i -> createByte(input.get(i))));
     }
 
-    @SuppressWarnings("unchecked")
     default DataResult<IntStream> getIntStream(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = (List<T>) List.of(stream.toArray());
-            if (list.stream().allMatch(element -> getNumberValue(element).isSuccess())) {
-                return DataResult.success(list.stream().mapToInt(element -> getNumberValue(element).getOrThrow().intValue()));
+            final IntArrayList values = new IntArrayList();
+            for (final Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                final Optional<Number> value = getNumberValue(iterator.next()).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not ints: " + input);
+                }
+                values.add(value.get().intValue());
             }
-            return DataResult.error(() -> "Some elements are not ints: " + input);
+            return DataResult.success(values.intStream());
         });
     }
 
@@ -184,14 +191,17 @@ public interface DynamicOps<T> {
         return createList(input.mapToObj(this::createInt));
     }
 
-    @SuppressWarnings("unchecked")
     default DataResult<LongStream> getLongStream(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = (List<T>) List.of(stream.toArray());
-            if (list.stream().allMatch(element -> getNumberValue(element).isSuccess())) {
-                return DataResult.success(list.stream().mapToLong(element -> getNumberValue(element).getOrThrow().longValue()));
+            final LongArrayList values = new LongArrayList();
+            for (final Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                final Optional<Number> value = getNumberValue(iterator.next()).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not longs: " + input);
+                }
+                values.add(value.get().longValue());
             }
-            return DataResult.error(() -> "Some elements are not longs: " + input);
+            return DataResult.success(values.longStream());
         });
     }
 
@@ -199,6 +209,55 @@ public interface DynamicOps<T> {
         return createList(input.mapToObj(this::createLong));
     }
 
+    /**
+     * Bulk version of {@link #getByteBuffer}, ops with a primitive representation should override it to avoid boxing.
+     */
+    default DataResult<byte[]> getByteArray(final T input) {
+        return getByteBuffer(input).map(buffer -> {
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.remaining() == buffer.array().length) {
+                return buffer.array();
+            }
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            return bytes;
+        });
+    }
+
+    /**
+     * The result may share {@code values}, which must not be modified afterwards.
+     */
+    default T createByteArray(final byte[] values) {
+        return createByteList(ByteBuffer.wrap(values));
+    }
+
+    /**
+     * Bulk version of {@link #getIntStream}, ops with a primitive representation should override it to avoid boxing.
+     */
+    default DataResult<int[]> getIntArray(final T input) {
+        return getIntStream(input).map(IntStream::toArray);
+    }
+
+    /**
+     * The result may share {@code values}, which must not be modified afterwards.
+     */
+    default T createIntArray(final int[] values) {
+        return createIntList(IntStream.of(values));
+    }
+
+    /**
+     * Bulk version of {@link #getLongStream}, ops with a primitive representation should override it to avoid boxing.
+     */
+    default DataResult<long[]> getLongArray(final T input) {
+        return getLongStream(input).map(LongStream::toArray);
+    }
+
+    /**
+     * The result may share {@code values}, which must not be modified afterwards.
+     */
+    default T createLongArray(final long[] values) {
+        return createLongList(LongStream.of(values));
+    }
+
     T remove(T input, String key);
 
     default boolean compressMaps() {
@@ -58,10 +58,10 @@ public class JavaOps implements DynamicOps<Object> {
             return outOps.createByteList(ByteBuffer.wrap(((ByteList) input).toByteArray()));
         }
         if (input instanceof IntList) {
-            return outOps.createIntList(((IntList) input).intStream());
+            return outOps.createIntArray(((IntList) input).toIntArray());
         }
         if (input instanceof LongList) {
-            return outOps.createLongList(((LongList) input).longStream());
+            return outOps.createLongArray(((LongList) input).toLongArray());
         }
         if (input instanceof List) {
             return convertList(outOps, input);
@@ -388,6 +388,45 @@ public class JavaOps implements DynamicOps<Object> {
         return LongArrayList.toList(input);
     }
 
+    @Override
+    public DataResult<byte[]> getByteArray(final Object input) {
+        if (input instanceof ByteList) {
+            return DataResult.success(((ByteList) input).toByteArray());
+        }
+        return DataResult.error(() -> "Not a byte list: " + input);
+    }
+
+    @Override
+    public Object createByteArray(final byte[] values) {
+        return ByteArrayList.wrap(values);
+    }
+
+    @Override
+    public DataResult<int[]> getIntArray(final Object input) {
+        if (input instanceof IntList) {
+            return DataResult.success(((IntList) input).toIntArray());
+        }
+        return DataResult.error(() -> "Not an int list: " + input);
+    }
+
+    @Override
+    public Object createIntArray(final int[] values) {
+        return IntArrayList.wrap(values);
+    }
+
+    @Override
+    public DataResult<long[]> getLongArray(final Object input) {
+        if (input instanceof LongList) {
+            return DataResult.success(((LongList) input).toLongArray());
+        }
+        return DataResult.error(() -> "Not a long list: " + input);
+    }
+
+    @Override
+    public Object createLongArray(final long[] values) {
+        return LongArrayList.wrap(values);
+    }
+
     @Override
     public Object remove(final Object input, final String key) {
         if (input instanceof Map) {
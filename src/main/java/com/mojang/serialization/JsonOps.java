@@ -12,23 +12,39 @@ import com.mojang.datafixers.util.Pair;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class JsonOps implements DynamicOps<JsonElement> {
     public static final JsonOps INSTANCE = new JsonOps(false);
     public static final JsonOps COMPRESSED = new JsonOps(true);
+    /**
+     * Variants whose merges and removals modify and return the object or array they are given instead of copying it,
+     * so that adding N entries one at a time costs O(N) instead of O(N^2).
+     * Ownership of the input passes to the result: it must not be shared with, or used by, anything else afterwards.
+     */
+    public static final JsonOps IN_PLACE = new JsonOps(false, true);
+    public static final JsonOps COMPRESSED_IN_PLACE = new JsonOps(true, true);
 
     private final boolean compressed;
+    private final boolean inPlace;
 
     protected JsonOps(final boolean compressed) {
+        this(compressed, false);
+    }
+
+    protected JsonOps(final boolean compressed, final boolean inPlace) {
         this.compressed = compressed;
+        this.inPlace = inPlace;
     }
 
     @Override
@@ -132,10 +148,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
             return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
         }
 
-        final JsonArray result = new JsonArray();
-        if (list != empty()) {
-            result.addAll(list.getAsJsonArray());
-        }
+        final JsonArray result = copyArray(list);
         result.add(value);
         return DataResult.success(result);
     }
@@ -146,10 +159,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
             return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
         }
 
-        final JsonArray result = new JsonArray();
-        if (list != empty()) {
-            result.addAll(list.getAsJsonArray());
-        }
+        final JsonArray result = copyArray(list);
         values.forEach(result::add);
         return DataResult.success(result);
     }
@@ -163,10 +173,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
             return DataResult.error(() -> "key is not a string: " + key, map);
         }
 
-        final JsonObject output = new JsonObject();
-        if (map != empty()) {
-            map.getAsJsonObject().entrySet().forEach(entry -> output.add(entry.getKey(), entry.getValue()));
-        }
+        final JsonObject output = copyObject(map);
         output.add(key.getAsString(), value);
 
         return DataResult.success(output);
@@ -178,10 +185,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
             return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
         }
 
-        final JsonObject output = new JsonObject();
-        if (map != empty()) {
-            map.getAsJsonObject().entrySet().forEach(entry -> output.add(entry.getKey(), entry.getValue()));
-        }
+        final JsonObject output = copyObject(map);
 
         final List<JsonElement> missed = Lists.newArrayList();
 
@@ -201,6 +205,36 @@ public class JsonOps implements DynamicOps<JsonElement> {
         return DataResult.success(output);
     }
 
+    /**
+     * The array to merge into: {@code list} itself in place, or a copy of it.
+     */
+    private JsonArray copyArray(final JsonElement list) {
+        if (list == empty()) {
+            return new JsonArray();
+        }
+        if (inPlace) {
+            return list.getAsJsonArray();
+        }
+        final JsonArray result = new JsonArray(list.getAsJsonArray().size());
+        result.addAll(list.getAsJsonArray());
+        return result;
+    }
+
+    /**
+     * The object to merge into: {@code map} itself in place, or a copy of it.
+     */
+    private JsonObject copyObject(final JsonElement map) {
+        if (map == empty()) {
+            return new JsonObject();
+        }
+        if (inPlace) {
+            return map.getAsJsonObject();
+        }
+        final JsonObject result = new JsonObject();
+        map.getAsJsonObject().entrySet().forEach(entry -> result.add(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
     @Override
     public DataResult<Stream<Pair<JsonElement, JsonElement>>> getMapValues(final JsonElement input) {
         if (!(input instanceof JsonObject)) {
@@ -253,6 +287,15 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 return object.entrySet().stream().map(e -> Pair.of(new JsonPrimitive(e.getKey()), e.getValue()));
             }
 
+            @Override
+            public void forEachString(final DynamicOps<JsonElement> ops, final BiConsumer<String, JsonElement> consumer) {
+                for (final Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                    if (!(entry.getValue() instanceof JsonNull)) {
+                        consumer.accept(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
             @Override
             public String toString() {
                 return "MapLike[" + object + "]";
@@ -294,9 +337,117 @@ public class JsonOps implements DynamicOps<JsonElement> {
         return result;
     }
 
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final JsonElement input) {
+        return getByteArray(input).map(ByteBuffer::wrap);
+    }
+
+    @Override
+    public DataResult<IntStream> getIntStream(final JsonElement input) {
+        return getIntArray(input).map(IntStream::of);
+    }
+
+    @Override
+    public DataResult<LongStream> getLongStream(final JsonElement input) {
+        return getLongArray(input).map(LongStream::of);
+    }
+
+    @Override
+    public DataResult<byte[]> getByteArray(final JsonElement input) {
+        if (!(input instanceof JsonArray)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final JsonArray array = input.getAsJsonArray();
+        final byte[] result = new byte[array.size()];
+        for (int i = 0; i < result.length; i++) {
+            final Number value = getNumber(array.get(i));
+            if (value == null) {
+                return DataResult.error(() -> "Some elements are not bytes: " + input);
+            }
+            result[i] = value.byteValue();
+        }
+        return DataResult.success(result);
+    }
+
+    @Override
+    public JsonElement createByteArray(final byte[] values) {
+        final JsonArray result = new JsonArray(values.length);
+        for (final byte value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    @Override
+    public DataResult<int[]> getIntArray(final JsonElement input) {
+        if (!(input instanceof JsonArray)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final JsonArray array = input.getAsJsonArray();
+        final int[] result = new int[array.size()];
+        for (int i = 0; i < result.length; i++) {
+            final Number value = getNumber(array.get(i));
+            if (value == null) {
+                return DataResult.error(() -> "Some elements are not ints: " + input);
+            }
+            result[i] = value.intValue();
+        }
+        return DataResult.success(result);
+    }
+
+    @Override
+    public JsonElement createIntArray(final int[] values) {
+        final JsonArray result = new JsonArray(values.length);
+        for (final int value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    @Override
+    public DataResult<long[]> getLongArray(final JsonElement input) {
+        if (!(input instanceof JsonArray)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final JsonArray array = input.getAsJsonArray();
+        final long[] result = new long[array.size()];
+        for (int i = 0; i < result.length; i++) {
+            final Number value = getNumber(array.get(i));
+            if (value == null) {
+                return DataResult.error(() -> "Some elements are not longs: " + input);
+            }
+            result[i] = value.longValue();
+        }
+        return DataResult.success(result);
+    }
+
+    @Override
+    public JsonElement createLongArray(final long[] values) {
+        final JsonArray result = new JsonArray(values.length);
+        for (final long value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #getNumberValue}, without wrapping plain numbers in a {@link DataResult}.
+     */
+    @Nullable
+    private Number getNumber(final JsonElement element) {
+        if (element instanceof JsonPrimitive && ((JsonPrimitive) element).isNumber()) {
+            return element.getAsNumber();
+        }
+        return getNumberValue(element).result().orElse(null);
+    }
+
     @Override
     public JsonElement remove(final JsonElement input, final String key) {
         if (input instanceof JsonObject) {
+            if (inPlace) {
+                input.getAsJsonObject().remove(key);
+                return input;
+            }
             final JsonObject result = new JsonObject();
             input.getAsJsonObject().entrySet().stream().filter(entry -> !Objects.equals(entry.getKey(), key)).forEach(entry -> result.add(entry.getKey(), entry.getValue()));
             return result;
@@ -314,12 +465,12 @@ public class JsonOps implements DynamicOps<JsonElement> {
         return new ArrayBuilder();
     }
 
-    private static final class ArrayBuilder implements ListBuilder<JsonElement> {
+    private final class ArrayBuilder implements ListBuilder<JsonElement> {
         private DataResult<JsonArray> builder = DataResult.success(new JsonArray(), Lifecycle.stable());
 
         @Override
         public DynamicOps<JsonElement> ops() {
-            return INSTANCE;
+            return JsonOps.this;
         }
 
         @Override
@@ -359,10 +510,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
                     return DataResult.error(() -> "Cannot append a list to not a list: " + prefix, prefix);
                 }
 
-                final JsonArray array = new JsonArray();
-                if (prefix != ops().empty()) {
-                    array.addAll(prefix.getAsJsonArray());
-                }
+                final JsonArray array = copyArray(prefix);
                 array.addAll(b);
                 return DataResult.success(array, Lifecycle.stable());
             });
@@ -404,10 +552,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 return DataResult.success(builder);
             }
             if (prefix instanceof JsonObject) {
-                final JsonObject result = new JsonObject();
-                for (final Map.Entry<String, JsonElement> entry : prefix.getAsJsonObject().entrySet()) {
-                    result.add(entry.getKey(), entry.getValue());
-                }
+                final JsonObject result = copyObject(prefix);
                 for (final Map.Entry<String, JsonElement> entry : builder.entrySet()) {
                     result.add(entry.getKey(), entry.getValue());
                 }
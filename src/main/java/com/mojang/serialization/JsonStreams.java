@@ -0,0 +1,149 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reads and writes JSON documents made of many records without holding the whole document in memory.
+ *
+ * Only the top level array or object is streamed: each of its elements is read into a {@link JsonElement} on
+ * its own, handed to {@link JsonOps}-based code, and written out before the next one is read, so peak memory is
+ * bounded by the largest single record instead of the whole document.
+ */
+public final class JsonStreams {
+    private JsonStreams() {
+    }
+
+    /**
+     * Reads the top level array of {@code reader} one element at a time.
+     */
+    public static void forEachElement(final JsonReader reader, final Consumer<JsonElement> consumer) throws IOException {
+        readElements(reader, consumer::accept);
+    }
+
+    /**
+     * Reads the top level object of {@code reader} one entry at a time.
+     */
+    public static void forEachEntry(final JsonReader reader, final BiConsumer<String, JsonElement> consumer) throws IOException {
+        readEntries(reader, consumer::accept);
+    }
+
+    /**
+     * Decodes every element of the top level array of {@code reader} with {@code decoder}.
+     */
+    public static <A> void decodeElements(final JsonReader reader, final Decoder<A> decoder, final Consumer<DataResult<A>> consumer) throws IOException {
+        readElements(reader, element -> consumer.accept(decoder.parse(JsonOps.INSTANCE, element)));
+    }
+
+    /**
+     * Encodes {@code values} into a top level array, elements that fail to encode are skipped and reported to {@code onError}.
+     */
+    public static <A> void encodeElements(final JsonWriter writer, final Encoder<A> encoder, final Iterator<? extends A> values, final Consumer<String> onError) throws IOException {
+        writer.beginArray();
+        while (values.hasNext()) {
+            final DataResult<JsonElement> result = encoder.encodeStart(JsonOps.INSTANCE, values.next());
+            final Optional<DataResult.Error<JsonElement>> error = result.error();
+            if (error.isPresent()) {
+                onError.accept(error.get().message());
+            } else {
+                write(writer, result.getOrThrow());
+            }
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Copies the document from {@code reader} to {@code writer}, replacing every element of a top level array, or
+     * every value of a top level object, with the result of {@code function}.
+     * Any other top level value is passed to {@code function} as a whole.
+     */
+    public static void transform(final JsonReader reader, final JsonWriter writer, final UnaryOperator<JsonElement> function) throws IOException {
+        final JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            writer.beginArray();
+            readElements(reader, element -> write(writer, function.apply(element)));
+            writer.endArray();
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            writer.beginObject();
+            readEntries(reader, (name, element) -> {
+                writer.name(name);
+                write(writer, function.apply(element));
+            });
+            writer.endObject();
+        } else {
+            write(writer, function.apply(JsonParser.parseReader(reader)));
+        }
+    }
+
+    /**
+     * Writes {@code element} to {@code writer}.
+     */
+    public static void write(final JsonWriter writer, final JsonElement element) throws IOException {
+        if (element.isJsonNull()) {
+            writer.nullValue();
+        } else if (element.isJsonPrimitive()) {
+            final JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isString()) {
+                writer.value(primitive.getAsString());
+            } else if (primitive.isBoolean()) {
+                writer.value(primitive.getAsBoolean());
+            } else {
+                writer.value(primitive.getAsNumber());
+            }
+        } else if (element.isJsonArray()) {
+            writer.beginArray();
+            for (final JsonElement child : (JsonArray) element) {
+                write(writer, child);
+            }
+            writer.endArray();
+        } else {
+            writer.beginObject();
+            for (final Map.Entry<String, JsonElement> entry : ((JsonObject) element).entrySet()) {
+                writer.name(entry.getKey());
+                write(writer, entry.getValue());
+            }
+            writer.endObject();
+        }
+    }
+
+    private static void readElements(final JsonReader reader, final ElementConsumer consumer) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            consumer.accept(JsonParser.parseReader(reader));
+        }
+        reader.endArray();
+    }
+
+    private static void readEntries(final JsonReader reader, final EntryConsumer consumer) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            consumer.accept(name, JsonParser.parseReader(reader));
+        }
+        reader.endObject();
+    }
+
+    private interface ElementConsumer {
+        void accept(JsonElement element) throws IOException;
+    }
+
+    private interface EntryConsumer {
+        void accept(String name, JsonElement element) throws IOException;
+    }
+}
@@ -2,47 +2,65 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.objects.Object2IntArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.List;
 import java.util.stream.Stream;
 
+/**
+ * Maps the keys of a map codec to and from their index in compressed maps.
+ * Immutable once built, so it can be shared between threads.
+ * Only holds its ops weakly, so that caches keyed by the ops, such as {@link CompressorHolder}, do not keep it alive.
+ */
 public final class KeyCompressor<T> {
-    private final Int2ObjectMap<T> decompress = new Int2ObjectArrayMap<>();
-    private final Object2IntMap<T> compress = new Object2IntArrayMap<>();
-    private final Object2IntMap<String> compressString = new Object2IntArrayMap<>();
-    private final int size;
-    private final DynamicOps<T> ops;
+    private final Object[] decompress;
+    private final Object2IntMap<T> compress = new Object2IntOpenHashMap<>();
+    private final Object2IntMap<String> compressString = new Object2IntOpenHashMap<>();
+    private final WeakReference<DynamicOps<T>> ops;
 
     public KeyCompressor(final DynamicOps<T> ops, final Stream<T> keyStream) {
-        this.ops = ops;
+        this.ops = new WeakReference<>(ops);
 
         compressString.defaultReturnValue(-1);
 
+        final List<T> keys = new ObjectArrayList<>();
         keyStream.forEach(key -> {
             if (compress.containsKey(key)) {
                 return;
             }
-            final int next = compress.size();
+            final int next = keys.size();
             compress.put(key, next);
             ops.getStringValue(key).result().ifPresent(k ->
                 compressString.put(k, next)
             );
-            decompress.put(next, key);
+            keys.add(key);
         });
 
-        size = compress.size();
+        decompress = keys.toArray();
     }
 
+    @Nullable
+    DynamicOps<T> ops() {
+        return ops.get();
+    }
+
+    @SuppressWarnings("unchecked")
     public T decompress(final int key) {
-        return decompress.get(key);
+        return key >= 0 && key < decompress.length ? (T) decompress[key] : null;
     }
 
     public int compress(final String key) {
         final int id = compressString.getInt(key);
-        return id == -1 ? compress(ops.createString(key)) : id;
+        if (id != -1) {
+            return id;
+        }
+        // keys from a collected ops can no longer be created, so they can't be in the table either; report them like any unknown key
+        final DynamicOps<T> ops = this.ops.get();
+        return ops == null ? compress.defaultReturnValue() : compress(ops.createString(key));
     }
 
     public int compress(final T key) {
@@ -50,6 +68,6 @@ public final class KeyCompressor<T> {
     }
 
     public int size() {
-        return size;
+        return decompress.length;
     }
 }
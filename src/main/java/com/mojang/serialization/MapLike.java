@@ -6,6 +6,7 @@ import com.mojang.datafixers.util.Pair;
 
 import javax.annotation.Nullable;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
 public interface MapLike<T> {
@@ -17,6 +18,15 @@ public interface MapLike<T> {
 
     Stream<Pair<T, T>> entries();
 
+    /**
+     * Passes every entry with a string key to {@code consumer}, in one pass over the map.
+     * Maps whose lookups are slower than a hash lookup should override this: record codecs with many fields then
+     * read them in a single pass, instead of looking up each field.
+     */
+    default void forEachString(final DynamicOps<T> ops, final BiConsumer<String, T> consumer) {
+        entries().forEach(entry -> ops.getStringValue(entry.getFirst()).result().ifPresent(key -> consumer.accept(key, entry.getSecond())));
+    }
+
     static <T> MapLike<T> forMap(final Map<T, T> map, final DynamicOps<T> ops) {
         return new MapLike<T>() {
             @Nullable
@@ -35,6 +35,13 @@ public interface RecordBuilder<T> {
         return add(ops().createString(key), value);
     }
 
+    /**
+     * Same as {@link #add(String, DataResult)}, with {@code key} already created from {@code name} by {@link #ops()}.
+     */
+    default RecordBuilder<T> add(final String name, final T key, final DataResult<T> value) {
+        return add(key, value);
+    }
+
     default <E> RecordBuilder<T> add(final String key, final E value, final Encoder<E> encoder) {
         return add(key, encoder.encodeStart(ops(), value));
     }
@@ -89,6 +96,11 @@ public interface RecordBuilder<T> {
 
         protected abstract R append(String key, T value, R builder);
 
+        @Override
+        public RecordBuilder<T> add(final String name, final T key, final DataResult<T> value) {
+            return add(name, value);
+        }
+
         @Override
         public RecordBuilder<T> add(final String key, final T value) {
             builder = builder.map(b -> append(key, value, b));
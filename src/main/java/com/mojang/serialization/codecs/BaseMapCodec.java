@@ -4,7 +4,6 @@ package com.mojang.serialization.codecs;
 
 import com.google.common.collect.ImmutableMap;
 import com.mojang.datafixers.util.Pair;
-import com.mojang.datafixers.util.Unit;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
@@ -15,7 +14,6 @@ import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 public interface BaseMapCodec<K, V> {
@@ -27,34 +25,30 @@ public interface BaseMapCodec<K, V> {
         final Object2ObjectMap<K, V> read = new Object2ObjectArrayMap<>();
         final Stream.Builder<Pair<T, T>> failed = Stream.builder();
 
-        final DataResult<Unit> result = input.entries().reduce(
-            DataResult.success(Unit.INSTANCE, Lifecycle.stable()),
-            (r, pair) -> {
-                final DataResult<K> key = keyCodec().parse(ops, pair.getFirst());
-                final DataResult<V> value = elementCodec().parse(ops, pair.getSecond());
+        final DataResult.Collector result = new DataResult.Collector(Lifecycle.stable());
+        input.entries().forEach(pair -> {
+            final DataResult<K> key = keyCodec().parse(ops, pair.getFirst());
+            final DataResult<V> value = elementCodec().parse(ops, pair.getSecond());
 
-                final DataResult<Pair<K, V>> entryResult = key.apply2stable(Pair::of, value);
-                final Optional<Pair<K, V>> entry = entryResult.resultOrPartial();
-                if (entry.isPresent()) {
-                    final V existingValue = read.putIfAbsent(entry.get().getFirst(), entry.get().getSecond());
-                    if (existingValue != null) {
-                        failed.add(pair);
-                        return r.apply2stable((u, p) -> u, DataResult.error(() -> "Duplicate entry for key: '" + entry.get().getFirst() + "'"));
-                    }
-                }
-                if (entryResult.isError()) {
+            final DataResult<Pair<K, V>> entryResult = key.apply2stable(Pair::of, value);
+            if (entryResult.hasResultOrPartial()) {
+                final Pair<K, V> entry = entryResult.getPartialOrThrow();
+                final V existingValue = read.putIfAbsent(entry.getFirst(), entry.getSecond());
+                if (existingValue != null) {
                     failed.add(pair);
+                    result.add(DataResult.error(() -> "Duplicate entry for key: '" + entry.getFirst() + "'"));
+                    return;
                 }
-
-                return r.apply2stable((u, p) -> u, entryResult);
-            },
-            (r1, r2) -> r1.apply2stable((u1, u2) -> u1, r2)
-        );
+            }
+            if (!result.add(entryResult)) {
+                failed.add(pair);
+            }
+        });
 
         final Map<K, V> elements = ImmutableMap.copyOf(read);
         final T errors = ops.createMap(failed.build());
 
-        return result.map(unit -> elements).setPartial(elements).mapError(e -> e + " missed input: " + errors);
+        return result.build(elements).mapError(e -> e + " missed input: " + errors);
     }
 
     default <T> RecordBuilder<T> encode(final Map<K, V> input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
@@ -4,7 +4,6 @@ package com.mojang.serialization.codecs;
 
 import com.google.common.collect.ImmutableMap;
 import com.mojang.datafixers.util.Pair;
-import com.mojang.datafixers.util.Unit;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
@@ -13,7 +12,6 @@ import com.mojang.serialization.RecordBuilder;
 import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
 
 import java.util.Map;
-import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -55,37 +53,32 @@ public final class DispatchedMapCodec<K, V> implements Codec<Map<K, V>> {
             final Map<K, V> entries = new Object2ObjectArrayMap<>();
             final Stream.Builder<Pair<T, T>> failed = Stream.builder();
 
-            final DataResult<Unit> finalResult = map.entries().reduce(
-                DataResult.success(Unit.INSTANCE, Lifecycle.stable()),
-                (result, entry) -> parseEntry(result, ops, entry, entries, failed),
-                (r1, r2) -> r1.apply2stable((u1, u2) -> u1, r2)
-            );
+            final DataResult.Collector result = new DataResult.Collector(Lifecycle.stable());
+            map.entries().forEach(entry -> parseEntry(result, ops, entry, entries, failed));
 
             final Pair<Map<K, V>, T> pair = Pair.of(ImmutableMap.copyOf(entries), input);
             final T errors = ops.createMap(failed.build());
 
-            return finalResult.map(ignored -> pair).setPartial(pair).mapError(error -> error + " missed input: " + errors);
+            return result.build(pair).mapError(error -> error + " missed input: " + errors);
         });
     }
 
-    private <T> DataResult<Unit> parseEntry(final DataResult<Unit> result, final DynamicOps<T> ops, final Pair<T, T> input, final Map<K, V> entries, final Stream.Builder<Pair<T, T>> failed) {
+    private <T> void parseEntry(final DataResult.Collector result, final DynamicOps<T> ops, final Pair<T, T> input, final Map<K, V> entries, final Stream.Builder<Pair<T, T>> failed) {
         final DataResult<K> keyResult = keyCodec.parse(ops, input.getFirst());
         final DataResult<V> valueResult = keyResult.map(valueCodecFunction).flatMap(valueCodec -> valueCodec.parse(ops, input.getSecond()).map(Function.identity()));
         final DataResult<Pair<K, V>> entryResult = keyResult.apply2stable(Pair::of, valueResult);
 
-        final Optional<Pair<K, V>> entry = entryResult.resultOrPartial();
-        if (entry.isPresent()) {
-            final K key = entry.get().getFirst();
-            final V value = entry.get().getSecond();
-            if (entries.putIfAbsent(key, value) != null) {
+        if (entryResult.hasResultOrPartial()) {
+            final Pair<K, V> entry = entryResult.getPartialOrThrow();
+            final K key = entry.getFirst();
+            if (entries.putIfAbsent(key, entry.getSecond()) != null) {
                 failed.add(input);
-                return result.apply2stable((u, p) -> u, DataResult.error(() -> "Duplicate entry for key: '" + key + "'"));
+                result.add(DataResult.error(() -> "Duplicate entry for key: '" + key + "'"));
+                return;
             }
         }
-        if (entryResult.isError()) {
+        if (!result.add(entryResult)) {
             failed.add(input);
         }
-
-        return result.apply2stable((u, p) -> u, entryResult);
     }
 }
@@ -14,10 +14,12 @@ import java.util.stream.Stream;
 public final class FieldDecoder<A> extends MapDecoder.Implementation<A> {
     protected final String name;
     private final Decoder<A> elementCodec;
+    private final FieldKey key;
 
     public FieldDecoder(final String name, final Decoder<A> elementCodec) {
         this.name = name;
         this.elementCodec = elementCodec;
+        key = new FieldKey(name);
     }
 
     @Override
@@ -31,7 +33,7 @@ public final class FieldDecoder<A> extends MapDecoder.Implementation<A> {
 
     @Override
     public <T> Stream<T> keys(final DynamicOps<T> ops) {
-        return Stream.of(ops.createString(name));
+        return Stream.of(key.get(ops));
     }
 
     @Override
@@ -13,20 +13,22 @@ import java.util.stream.Stream;
 public class FieldEncoder<A> extends MapEncoder.Implementation<A> {
     private final String name;
     private final Encoder<A> elementCodec;
+    private final FieldKey key;
 
     public FieldEncoder(final String name, final Encoder<A> elementCodec) {
         this.name = name;
         this.elementCodec = elementCodec;
+        key = new FieldKey(name);
     }
 
     @Override
     public <T> RecordBuilder<T> encode(final A input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-        return prefix.add(name, elementCodec.encodeStart(ops, input));
+        return prefix.add(name, key.get(ops), elementCodec.encodeStart(ops, input));
     }
 
     @Override
     public <T> Stream<T> keys(final DynamicOps<T> ops) {
-        return Stream.of(ops.createString(name));
+        return Stream.of(key.get(ops));
     }
 
     @Override
@@ -0,0 +1,47 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.codecs;
+
+import com.mojang.serialization.DynamicOps;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+
+/**
+ * The name of a field, together with its key as created by the last ops it was used with.
+ * The ops is only held weakly, a field outlives most ops it is used with.
+ */
+final class FieldKey {
+    private final String name;
+    @Nullable
+    private volatile Created<?> last;
+
+    FieldKey(final String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(final DynamicOps<T> ops) {
+        final Created<?> created = last;
+        if (created != null && created.ops.get() == ops) {
+            return (T) created.key;
+        }
+        final T key = ops.createString(name);
+        last = new Created<>(ops, key);
+        return key;
+    }
+
+    private static final class Created<T> {
+        private final WeakReference<DynamicOps<T>> ops;
+        private final T key;
+
+        private Created(final DynamicOps<T> ops, final T key) {
+            this.ops = new WeakReference<>(ops);
+            this.key = key;
+        }
+    }
+}
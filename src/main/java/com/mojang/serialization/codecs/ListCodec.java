@@ -3,7 +3,6 @@
 package com.mojang.serialization.codecs;
 
 import com.mojang.datafixers.util.Pair;
-import com.mojang.datafixers.util.Unit;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
@@ -75,13 +74,11 @@ public final class ListCodec<E> implements Codec<List<E>> {
         return "ListCodec[" + elementCodec + ']';
     }
 
-    private static final DataResult<Unit> INITIAL_RESULT = DataResult.success(Unit.INSTANCE, Lifecycle.stable());
-
     private class DecoderState<T> {
         private final DynamicOps<T> ops;
         private final List<E> elements = new ArrayList<>();
         private final Stream.Builder<T> failed = Stream.builder();
-        private DataResult<Unit> result = INITIAL_RESULT;
+        private final DataResult.Collector result = new DataResult.Collector(Lifecycle.stable());
         private int totalCount;
 
         private DecoderState(final DynamicOps<T> ops) {
@@ -95,9 +92,12 @@ public final class ListCodec<E> implements Codec<List<E>> {
                 return;
             }
             final DataResult<Pair<E, T>> elementResult = elementCodec.decode(ops, value);
-            elementResult.error().ifPresent(error -> failed.add(value));
-            elementResult.resultOrPartial().ifPresent(pair -> elements.add(pair.getFirst()));
-            result = result.apply2stable((result, element) -> result, elementResult);
+            if (!result.add(elementResult)) {
+                failed.add(value);
+            }
+            if (elementResult.hasResultOrPartial()) {
+                elements.add(elementResult.getPartialOrThrow().getFirst());
+            }
         }
 
         public DataResult<Pair<List<E>, T>> build() {
@@ -107,9 +107,9 @@ public final class ListCodec<E> implements Codec<List<E>> {
             final T errors = ops.createList(failed.build());
             final Pair<List<E>, T> pair = Pair.of(List.copyOf(elements), errors);
             if (totalCount > maxSize) {
-                result = createTooLongError(totalCount);
+                return ListCodec.this.<Pair<List<E>, T>>createTooLongError(totalCount).setPartial(pair);
             }
-            return result.map(ignored -> pair).setPartial(pair);
+            return result.build(pair);
         }
     }
 }
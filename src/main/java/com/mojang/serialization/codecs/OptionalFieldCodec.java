@@ -18,11 +18,13 @@ public class OptionalFieldCodec<A> extends MapCodec<Optional<A>> {
     private final String name;
     private final Codec<A> elementCodec;
     private final boolean lenient;
+    private final FieldKey key;
 
     public OptionalFieldCodec(final String name, final Codec<A> elementCodec, final boolean lenient) {
         this.name = name;
         this.elementCodec = elementCodec;
         this.lenient = lenient;
+        key = new FieldKey(name);
     }
 
     @Override
@@ -41,14 +43,14 @@ public class OptionalFieldCodec<A> extends MapCodec<Optional<A>> {
     @Override
     public <T> RecordBuilder<T> encode(final Optional<A> input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
         if (input.isPresent()) {
-            return prefix.add(name, elementCodec.encodeStart(ops, input.get()));
+            return prefix.add(name, key.get(ops), elementCodec.encodeStart(ops, input.get()));
         }
         return prefix;
     }
 
     @Override
     public <T> Stream<T> keys(final DynamicOps<T> ops) {
-        return Stream.of(ops.createString(name));
+        return Stream.of(key.get(ops));
     }
 
     @Override
@@ -2,11 +2,24 @@
 // Licensed under the MIT license.
 package com.mojang.serialization.codecs;
 
+import com.google.common.collect.MapMaker;
 import com.mojang.datafixers.kinds.App;
 import com.mojang.datafixers.kinds.Applicative;
 import com.mojang.datafixers.kinds.K1;
+import com.mojang.datafixers.util.Function10;
+import com.mojang.datafixers.util.Function11;
+import com.mojang.datafixers.util.Function12;
+import com.mojang.datafixers.util.Function13;
+import com.mojang.datafixers.util.Function14;
+import com.mojang.datafixers.util.Function15;
+import com.mojang.datafixers.util.Function16;
 import com.mojang.datafixers.util.Function3;
 import com.mojang.datafixers.util.Function4;
+import com.mojang.datafixers.util.Function5;
+import com.mojang.datafixers.util.Function6;
+import com.mojang.datafixers.util.Function7;
+import com.mojang.datafixers.util.Function8;
+import com.mojang.datafixers.util.Function9;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Decoder;
@@ -19,6 +32,11 @@ import com.mojang.serialization.MapEncoder;
 import com.mojang.serialization.MapLike;
 import com.mojang.serialization.RecordBuilder;
 
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -100,28 +118,120 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
     }
 
     public static <O> MapCodec<O> build(final App<Mu<O>, O> builderBox) {
-        final RecordCodecBuilder<O, O> builder = unbox(builderBox);
-        return new MapCodec<O>() {
-            @Override
-            public <T> DataResult<O> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                return builder.decoder.decode(ops, input);
+        return new RecordMapCodec<>(unbox(builderBox));
+    }
+
+    private static final class RecordMapCodec<O> extends MapCodec<O> {
+        private final RecordCodecBuilder<O, O> builder;
+        // weak identity keys; the tables do not refer to their ops, so an entry goes away with its ops
+        private final Map<DynamicOps<?>, Optional<RecordFields<?>>> fields = new MapMaker().weakKeys().makeMap();
+        @Nullable
+        private volatile LastFields lastFields;
+
+        private RecordMapCodec(final RecordCodecBuilder<O, O> builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public <T> DataResult<O> decode(final DynamicOps<T> ops, final MapLike<T> input) {
+            final RecordFields<T> table = fields(ops);
+            return builder.decoder.decode(ops, table != null ? table.index(ops, input) : input);
+        }
+
+        @Nullable
+        @SuppressWarnings("unchecked")
+        private <T> RecordFields<T> fields(final DynamicOps<T> ops) {
+            final LastFields last = lastFields;
+            if (last != null && last.ops.get() == ops) {
+                return (RecordFields<T>) last.fields;
             }
+            final RecordFields<?> result = fields.computeIfAbsent(ops, o -> Optional.ofNullable(RecordFields.of(ops, keys(ops)))).orElse(null);
+            lastFields = new LastFields(ops, result);
+            return (RecordFields<T>) result;
+        }
+
+        @Override
+        public <T> RecordBuilder<T> encode(final O input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
+            return builder.encoder.apply(input).encode(input, ops, prefix);
+        }
+
+        @Override
+        public <T> Stream<T> keys(final DynamicOps<T> ops) {
+            return builder.decoder.keys(ops);
+        }
+
+        @Override
+        public String toString() {
+            return "RecordCodec[" + builder.decoder + "]";
+        }
+
+        private static final class LastFields {
+            private final WeakReference<DynamicOps<?>> ops;
+            @Nullable
+            private final RecordFields<?> fields;
+
+            private LastFields(final DynamicOps<?> ops, @Nullable final RecordFields<?> fields) {
+                this.ops = new WeakReference<>(ops);
+                this.fields = fields;
+            }
+        }
+    }
+
+    /**
+     * Decodes the function and every field of a record in one pass, into a single result.
+     *
+     * Errors, partial results and lifecycles are combined exactly like nested {@link DataResult#ap} calls would,
+     * without building an intermediate result or curried function per field.
+     */
+    private static final class FlatDecoder<F, R> extends MapDecoder.Implementation<R> {
+        private final MapDecoder<F> function;
+        private final BiFunction<F, Object[], R> applier;
+        private final MapDecoder<?>[] fields;
+
+        private FlatDecoder(final MapDecoder<F> function, final BiFunction<F, Object[], R> applier, final MapDecoder<?>... fields) {
+            this.function = function;
+            this.applier = applier;
+            this.fields = fields;
+        }
 
-            @Override
-            public <T> RecordBuilder<T> encode(final O input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                return builder.encoder.apply(input).encode(input, ops, prefix);
+        @Override
+        public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
+            final DataResult<F> functionResult = function.decode(ops, input);
+            final DataResult.Collector errors = new DataResult.Collector(Lifecycle.stable());
+            errors.add(functionResult);
+            boolean complete = functionResult.hasResultOrPartial();
+            final F functionValue = complete ? functionResult.getPartialOrThrow() : null;
+
+            final Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                final DataResult<?> result = fields[i].decode(ops, input);
+                errors.add(result);
+                if (result.hasResultOrPartial()) {
+                    values[i] = result.getPartialOrThrow();
+                } else {
+                    complete = false;
+                }
             }
 
-            @Override
-            public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                return builder.decoder.keys(ops);
+            if (complete) {
+                return errors.build(applier.apply(functionValue, values));
             }
+            return errors.buildWithoutValue();
+        }
 
-            @Override
-            public String toString() {
-                return "RecordCodec[" + builder.decoder + "]";
+        @Override
+        public <T> Stream<T> keys(final DynamicOps<T> ops) {
+            return Stream.concat(function.keys(ops), Arrays.stream(fields).flatMap(field -> field.keys(ops)));
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(function.toString());
+            for (final MapDecoder<?> field : fields) {
+                builder.append(" * ").append(field);
             }
-        };
+            return builder.toString();
+        }
     }
 
     public static final class Instance<O> implements Applicative<Mu<O>, Instance.Mu<O>> {
@@ -202,6 +312,7 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public <A, B, R> App<RecordCodecBuilder.Mu<O>, R> ap2(final App<RecordCodecBuilder.Mu<O>, BiFunction<A, B, R>> func, final App<RecordCodecBuilder.Mu<O>, A> a, final App<RecordCodecBuilder.Mu<O>, B> b) {
             final RecordCodecBuilder<O, BiFunction<A, B, R>> function = unbox(func);
             final RecordCodecBuilder<O, A> fa = unbox(a);
@@ -240,34 +351,12 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
                         }
                     };
                 },
-                new MapDecoder.Implementation<R>() {
-                    @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap2(
-                            function.decoder.decode(ops, input),
-                            fa.decoder.decode(ops, input),
-                            fb.decoder.decode(ops, input)
-                        ));
-                    }
-
-                    @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            fa.decoder.keys(ops),
-                            fb.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
-
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + fa.decoder + " * " + fb.decoder;
-                    }
-                }
+                new FlatDecoder<>(function.decoder, (f, args) -> f.apply((A) args[0], (B) args[1]), fa.decoder, fb.decoder)
             );
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public <T1, T2, T3, R> App<RecordCodecBuilder.Mu<O>, R> ap3(final App<RecordCodecBuilder.Mu<O>, Function3<T1, T2, T3, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3) {
             final RecordCodecBuilder<O, Function3<T1, T2, T3, R>> function = unbox(func);
             final RecordCodecBuilder<O, T1> f1 = unbox(t1);
@@ -315,36 +404,12 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
                         }
                     };
                 },
-                new MapDecoder.Implementation<R>() {
-                    @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap3(
-                            function.decoder.decode(ops, input),
-                            f1.decoder.decode(ops, input),
-                            f2.decoder.decode(ops, input),
-                            f3.decoder.decode(ops, input)
-                        ));
-                    }
-
-                    @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            f1.decoder.keys(ops),
-                            f2.decoder.keys(ops),
-                            f3.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
-
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + f1.decoder + " * " + f2.decoder + " * " + f3.decoder;
-                    }
-                }
+                new FlatDecoder<>(function.decoder, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2]), f1.decoder, f2.decoder, f3.decoder)
             );
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public <T1, T2, T3, T4, R> App<RecordCodecBuilder.Mu<O>, R> ap4(final App<RecordCodecBuilder.Mu<O>, Function4<T1, T2, T3, T4, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4) {
             final RecordCodecBuilder<O, Function4<T1, T2, T3, T4, R>> function = unbox(func);
             final RecordCodecBuilder<O, T1> f1 = unbox(t1);
@@ -398,35 +463,94 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
                         }
                     };
                 },
-                new MapDecoder.Implementation<R>() {
-                    @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap4(
-                            function.decoder.decode(ops, input),
-                            f1.decoder.decode(ops, input),
-                            f2.decoder.decode(ops, input),
-                            f3.decoder.decode(ops, input),
-                            f4.decoder.decode(ops, input)
-                        ));
-                    }
+                new FlatDecoder<>(function.decoder, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3]), f1.decoder, f2.decoder, f3.decoder, f4.decoder)
+            );
+        }
 
-                    @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            f1.decoder.keys(ops),
-                            f2.decoder.keys(ops),
-                            f3.decoder.keys(ops),
-                            f4.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, R> App<RecordCodecBuilder.Mu<O>, R> ap5(final App<RecordCodecBuilder.Mu<O>, Function5<T1, T2, T3, T4, T5, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5) {
+            return flat(Applicative.super.ap5(func, t1, t2, t3, t4, t5), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4]), t1, t2, t3, t4, t5);
+        }
 
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + f1.decoder + " * " + f2.decoder + " * " + f3.decoder + " * " + f4.decoder;
-                    }
-                }
-            );
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, R> App<RecordCodecBuilder.Mu<O>, R> ap6(final App<RecordCodecBuilder.Mu<O>, Function6<T1, T2, T3, T4, T5, T6, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6) {
+            return flat(Applicative.super.ap6(func, t1, t2, t3, t4, t5, t6), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5]), t1, t2, t3, t4, t5, t6);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, R> App<RecordCodecBuilder.Mu<O>, R> ap7(final App<RecordCodecBuilder.Mu<O>, Function7<T1, T2, T3, T4, T5, T6, T7, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7) {
+            return flat(Applicative.super.ap7(func, t1, t2, t3, t4, t5, t6, t7), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6]), t1, t2, t3, t4, t5, t6, t7);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, R> App<RecordCodecBuilder.Mu<O>, R> ap8(final App<RecordCodecBuilder.Mu<O>, Function8<T1, T2, T3, T4, T5, T6, T7, T8, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8) {
+            return flat(Applicative.super.ap8(func, t1, t2, t3, t4, t5, t6, t7, t8), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7]), t1, t2, t3, t4, t5, t6, t7, t8);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, R> App<RecordCodecBuilder.Mu<O>, R> ap9(final App<RecordCodecBuilder.Mu<O>, Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9) {
+            return flat(Applicative.super.ap9(func, t1, t2, t3, t4, t5, t6, t7, t8, t9), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8]), t1, t2, t3, t4, t5, t6, t7, t8, t9);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, R> App<RecordCodecBuilder.Mu<O>, R> ap10(final App<RecordCodecBuilder.Mu<O>, Function10<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10) {
+            return flat(Applicative.super.ap10(func, t1, t2, t3, t4, t5, t6, t7, t8, t9, t10), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8], (T10) args[9]), t1, t2, t3, t4, t5, t6, t7, t8, t9, t10);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, R> App<RecordCodecBuilder.Mu<O>, R> ap11(final App<RecordCodecBuilder.Mu<O>, Function11<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11) {
+            return flat(Applicative.super.ap11(func, t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8], (T10) args[9], (T11) args[10]), t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, R> App<RecordCodecBuilder.Mu<O>, R> ap12(final App<RecordCodecBuilder.Mu<O>, Function12<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12) {
+            return flat(Applicative.super.ap12(func, t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8], (T10) args[9], (T11) args[10], (T12) args[11]), t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, R> App<RecordCodecBuilder.Mu<O>, R> ap13(final App<RecordCodecBuilder.Mu<O>, Function13<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13) {
+            return flat(Applicative.super.ap13(func, t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8], (T10) args[9], (T11) args[10], (T12) args[11], (T13) args[12]), t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, R> App<RecordCodecBuilder.Mu<O>, R> ap14(final App<RecordCodecBuilder.Mu<O>, Function14<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13, final App<RecordCodecBuilder.Mu<O>, T14> t14) {
+            return flat(Applicative.super.ap14(func, t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13, t14), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8], (T10) args[9], (T11) args[10], (T12) args[11], (T13) args[12], (T14) args[13]), t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13, t14);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, R> App<RecordCodecBuilder.Mu<O>, R> ap15(final App<RecordCodecBuilder.Mu<O>, Function15<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13, final App<RecordCodecBuilder.Mu<O>, T14> t14, final App<RecordCodecBuilder.Mu<O>, T15> t15) {
+            return flat(Applicative.super.ap15(func, t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13, t14, t15), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8], (T10) args[9], (T11) args[10], (T12) args[11], (T13) args[12], (T14) args[13], (T15) args[14]), t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13, t14, t15);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, T16, R> App<RecordCodecBuilder.Mu<O>, R> ap16(final App<RecordCodecBuilder.Mu<O>, Function16<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, T16, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13, final App<RecordCodecBuilder.Mu<O>, T14> t14, final App<RecordCodecBuilder.Mu<O>, T15> t15, final App<RecordCodecBuilder.Mu<O>, T16> t16) {
+            return flat(Applicative.super.ap16(func, t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13, t14, t15, t16), func, (f, args) -> f.apply((T1) args[0], (T2) args[1], (T3) args[2], (T4) args[3], (T5) args[4], (T6) args[5], (T7) args[6], (T8) args[7], (T9) args[8], (T10) args[9], (T11) args[10], (T12) args[11], (T13) args[12], (T14) args[13], (T15) args[14], (T16) args[15]), t1, t2, t3, t4, t5, t6, t7, t8, t9, t10, t11, t12, t13, t14, t15, t16);
+        }
+
+        /**
+         * Keeps the getter and encoder of {@code nested}, but decodes all fields with one {@link FlatDecoder}
+         * instead of the nested applications it was built from.
+         */
+        @SafeVarargs
+        private <F, R> App<RecordCodecBuilder.Mu<O>, R> flat(final App<RecordCodecBuilder.Mu<O>, R> nested, final App<RecordCodecBuilder.Mu<O>, F> function, final BiFunction<F, Object[], R> applier, final App<RecordCodecBuilder.Mu<O>, ?>... fields) {
+            final RecordCodecBuilder<O, R> builder = unbox(nested);
+            final MapDecoder<?>[] decoders = new MapDecoder<?>[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                decoders[i] = unbox(fields[i]).decoder;
+            }
+            return new RecordCodecBuilder<>(builder.getter, builder.encoder, new FlatDecoder<>(unbox(function).decoder, applier, decoders));
         }
 
         @Override
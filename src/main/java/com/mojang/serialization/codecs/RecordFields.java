@@ -0,0 +1,106 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.codecs;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapLike;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import javax.annotation.Nullable;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * The field names of a record codec for one ops, each with a slot index.
+ *
+ * Indexing an input map reads it once, putting every field into its slot, so that the field decoders look their
+ * values up in an array instead of searching the map once per field.
+ * Tables only hold field names, not the ops they were built for, so that caching them per ops does not keep the ops alive.
+ */
+final class RecordFields<T> {
+    // below this, looking every field up is cheap enough
+    private static final int MIN_FIELDS = 8;
+    private static final ClassValue<Boolean> INDEXABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            try {
+                return type.getMethod("forEachString", DynamicOps.class, BiConsumer.class).getDeclaringClass() != MapLike.class;
+            } catch (final NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private final Object2IntMap<String> slots;
+
+    private RecordFields(final Object2IntMap<String> slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Returns the table for {@code keys}, or {@code null} if indexing would not pay off.
+     */
+    @Nullable
+    static <T> RecordFields<T> of(final DynamicOps<T> ops, final Stream<T> keys) {
+        if (ops.compressMaps()) {
+            // compressed maps are read from lists by index already
+            return null;
+        }
+        final Object2IntMap<String> slots = new Object2IntOpenHashMap<>();
+        slots.defaultReturnValue(-1);
+        keys.forEach(key -> ops.getStringValue(key).result().ifPresent(name -> slots.putIfAbsent(name, slots.size())));
+        return slots.size() < MIN_FIELDS ? null : new RecordFields<>(slots);
+    }
+
+    MapLike<T> index(final DynamicOps<T> ops, final MapLike<T> input) {
+        if (!INDEXABLE.get(input.getClass())) {
+            return input;
+        }
+        final Object[] values = new Object[slots.size()];
+        input.forEachString(ops, (name, value) -> {
+            final int slot = slots.getInt(name);
+            if (slot != -1) {
+                values[slot] = value;
+            }
+        });
+        return new Indexed<>(input, slots, values);
+    }
+
+    private static final class Indexed<T> implements MapLike<T> {
+        private final MapLike<T> input;
+        private final Object2IntMap<String> slots;
+        private final Object[] values;
+
+        private Indexed(final MapLike<T> input, final Object2IntMap<String> slots, final Object[] values) {
+            this.input = input;
+            this.slots = slots;
+            this.values = values;
+        }
+
+        @Nullable
+        @Override
+        public T get(final T key) {
+            return input.get(key);
+        }
+
+        @Nullable
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(final String key) {
+            final int slot = slots.getInt(key);
+            return slot == -1 ? input.get(key) : (T) values[slot];
+        }
+
+        @Override
+        public Stream<Pair<T, T>> entries() {
+            return input.entries();
+        }
+
+        @Override
+        public String toString() {
+            return input.toString();
+        }
+    }
+}
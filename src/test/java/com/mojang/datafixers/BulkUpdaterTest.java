@@ -0,0 +1,203 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkUpdaterTest {
+    private static BulkUpdater.Entry<Integer, JsonElement> entry(final int key, final DSL.TypeReference type, final JsonElement value) {
+        return new BulkUpdater.Entry<>(key, type, 1, new Dynamic<>(JsonOps.INSTANCE, value));
+    }
+
+    private static JsonObject numbered(final int key) {
+        final JsonObject value = new JsonObject();
+        value.addProperty("key", key);
+        return value;
+    }
+
+    private static List<BulkUpdater.Entry<Integer, JsonElement>> numberedEntries(final int count) {
+        final List<BulkUpdater.Entry<Integer, JsonElement>> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(entry(i, TestSchemas.NOTE, numbered(i)));
+        }
+        return entries;
+    }
+
+    /**
+     * Marks inputs as fixed, and throws for inputs with a "bad" field, whether they come alone or in a batch.
+     */
+    private static final class FlakyFixer implements DataFixer {
+        private final AtomicInteger batches = new AtomicInteger();
+        private final long delayMillis;
+
+        private FlakyFixer(final long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public <T> Dynamic<T> update(final DSL.TypeReference type, final Dynamic<T> input, final int version, final int newVersion) {
+            if (input.get("bad").result().isPresent()) {
+                throw new IllegalStateException("bad input");
+            }
+            return input.set("fixed", input.createBoolean(true));
+        }
+
+        @Override
+        public <T> List<Dynamic<T>> updateBatch(final DSL.TypeReference type, final List<Dynamic<T>> inputs, final int version, final int newVersion) {
+            batches.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (final InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return DataFixer.super.updateBatch(type, inputs, version, newVersion);
+        }
+
+        @Override
+        public Schema getSchema(final int key) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Passes the number of entries read before this one to a check each time an entry is read, and keeps the largest result.
+     */
+    private static final class WatchedSource<T> implements Iterator<T> {
+        private final Iterator<T> delegate;
+        private final IntUnaryOperator onRead;
+        private int reads;
+        private int maxObserved;
+
+        private WatchedSource(final Iterable<T> entries, final IntUnaryOperator onRead) {
+            delegate = entries.iterator();
+            this.onRead = onRead;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            maxObserved = Math.max(maxObserved, onRead.applyAsInt(reads));
+            reads++;
+            return delegate.next();
+        }
+    }
+
+    @Test
+    public void updatesInSourceOrderAndReportsPerType() {
+        final DataFixer fixer = TestSchemas.builder().build().fixer();
+        final List<BulkUpdater.Entry<Integer, JsonElement>> entries = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            entries.add(entry(entries.size(), TestSchemas.ITEM, TestSchemas.item("count", i)));
+            if (i % 3 == 0) {
+                entries.add(entry(entries.size(), TestSchemas.CHUNK, TestSchemas.chunkV1()));
+            }
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<BulkUpdater.Entry<Integer, JsonElement>> written = new ArrayList<>();
+            final BulkUpdater.Report report = new BulkUpdater(fixer, executor, 2, 3).run(entries.iterator(), TestSchemas.DATA_VERSION, written::add);
+
+            assertEquals(entries.size(), written.size());
+            for (int i = 0; i < entries.size(); i++) {
+                final BulkUpdater.Entry<Integer, JsonElement> input = entries.get(i);
+                final BulkUpdater.Entry<Integer, JsonElement> output = written.get(i);
+                assertEquals(input.key(), output.key());
+                assertEquals(TestSchemas.DATA_VERSION, output.version());
+                assertEquals(fixer.update(input.type(), input.value(), 1, TestSchemas.DATA_VERSION).getValue(), output.value().getValue());
+            }
+
+            assertEquals(10, report.records());
+            assertEquals(0, report.failures());
+            assertEquals(2, report.types().size());
+            assertEquals(7, report.types().get("item").records());
+            assertEquals(3, report.types().get("chunk").records());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedBatchIsRetriedPerEntry() {
+        final List<BulkUpdater.Entry<Integer, JsonElement>> entries = numberedEntries(10);
+        for (final int bad : new int[] {3, 7}) {
+            final JsonObject value = numbered(bad);
+            value.addProperty("bad", true);
+            entries.set(bad, entry(bad, TestSchemas.NOTE, value));
+        }
+
+        final FlakyFixer fixer = new FlakyFixer(0);
+        final List<Integer> written = new ArrayList<>();
+        final List<Integer> failed = new ArrayList<>();
+        final BulkUpdater.Report report = new BulkUpdater(fixer, Runnable::run, 4, 2).run(entries.iterator(), 2, e -> {
+            assertTrue(e.value().get("fixed").asBoolean(false));
+            written.add(e.key());
+        }, (e, t) -> failed.add(e.key()));
+
+        // the batches holding entry 3 and 7 failed, but the other entries in them were still written
+        assertEquals(List.of(0, 1, 2, 4, 5, 6, 8, 9), written);
+        assertEquals(List.of(3, 7), failed);
+        assertEquals(3, fixer.batches.get());
+        assertEquals(10, report.records());
+        assertEquals(2, report.failures());
+        assertEquals(10, report.types().get("note").records());
+    }
+
+    @Test
+    public void pendingBatchesAreBounded() {
+        final int batchSize = 2;
+        final int maxPendingBatches = 3;
+        final List<BulkUpdater.Entry<Integer, JsonElement>> written = new ArrayList<>();
+        final WatchedSource<BulkUpdater.Entry<Integer, JsonElement>> source = new WatchedSource<>(numberedEntries(40), reads -> reads - written.size());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new BulkUpdater(new FlakyFixer(5), executor, batchSize, maxPendingBatches).run(source, 2, written::add);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(40, written.size());
+        // the batch being filled, plus the batches in flight
+        assertTrue("at most " + source.maxObserved + " entries were held", source.maxObserved <= batchSize * (maxPendingBatches + 1));
+    }
+
+    @Test
+    public void finishedBatchesAreWrittenBeforeTheDequeFills() {
+        final List<BulkUpdater.Entry<Integer, JsonElement>> written = new ArrayList<>();
+        final List<Integer> writtenWhenReading = new ArrayList<>();
+        final WatchedSource<BulkUpdater.Entry<Integer, JsonElement>> source = new WatchedSource<>(numberedEntries(20), reads -> {
+            writtenWhenReading.add(written.size());
+            return 0;
+        });
+
+        // every batch is done as soon as it is submitted, so none of them has to wait for the deque to fill up
+        new BulkUpdater(new FlakyFixer(0), Runnable::run, 2, 8).run(source, 2, written::add);
+
+        assertEquals(20, written.size());
+        assertEquals(6, (int) writtenWhenReading.get(10));
+        assertEquals(16, (int) writtenWhenReading.get(19));
+    }
+}
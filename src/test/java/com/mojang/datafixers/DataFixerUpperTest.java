@@ -0,0 +1,192 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.Type;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataFixerUpperTest {
+    private static List<Dynamic<JsonElement>> entities(final DynamicOps<JsonElement> ops, final DynamicOps<JsonElement> otherOps) {
+        final List<Dynamic<JsonElement>> inputs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            inputs.add(new Dynamic<>(i % 3 == 2 ? otherOps : ops, TestSchemas.entity(i % 2 == 0 ? "a" : "b", i, TestSchemas.item("count", i))));
+        }
+        return inputs;
+    }
+
+    @Test
+    public void updateBatchMatchesUpdate() {
+        final DataFixer fixer = TestSchemas.builder().build().fixer();
+        // inputs with different ops in the same batch
+        final List<Dynamic<JsonElement>> inputs = entities(JsonOps.INSTANCE, new JsonOps(false) {});
+        for (int version = 1; version < TestSchemas.DATA_VERSION; version++) {
+            final List<Dynamic<JsonElement>> batch = fixer.updateBatch(TestSchemas.ENTITY, inputs, version, TestSchemas.DATA_VERSION);
+            assertEquals(inputs.size(), batch.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                final Dynamic<JsonElement> expected = fixer.update(TestSchemas.ENTITY, inputs.get(i), version, TestSchemas.DATA_VERSION);
+                assertEquals(expected.getValue(), batch.get(i).getValue());
+                assertSame(inputs.get(i).getOps(), batch.get(i).getOps());
+            }
+        }
+    }
+
+    @Test
+    public void updateBatchKeepsUntouchedInputs() {
+        final DataFixer fixer = TestSchemas.builder().build().fixer();
+        final List<Dynamic<JsonElement>> inputs = entities(JsonOps.INSTANCE, JsonOps.INSTANCE);
+        assertUntouched(inputs, fixer.updateBatch(TestSchemas.ENTITY, inputs, TestSchemas.DATA_VERSION, TestSchemas.DATA_VERSION));
+        assertUntouched(inputs, fixer.updateBatch(TestSchemas.NOTE, inputs, 1, TestSchemas.DATA_VERSION));
+        assertUntouched(List.of(), fixer.updateBatch(TestSchemas.ENTITY, List.<Dynamic<JsonElement>>of(), 1, TestSchemas.DATA_VERSION));
+    }
+
+    private static <T> void assertUntouched(final List<Dynamic<T>> inputs, final List<Dynamic<T>> result) {
+        assertNotSame(inputs, result);
+        assertEquals(inputs.size(), result.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            assertSame(inputs.get(i), result.get(i));
+        }
+        // the result is the caller's to change
+        result.clear();
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void concurrentRuleLookupsShareOneRulePerRange() throws Exception {
+        final DataFixerUpper fixer = (DataFixerUpper) TestSchemas.builder().build().fixer();
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<TypeRewriteRule[][]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    final TypeRewriteRule[][] rules = new TypeRewriteRule[TestSchemas.DATA_VERSION + 1][TestSchemas.DATA_VERSION + 1];
+                    for (int version = 1; version <= TestSchemas.DATA_VERSION; version++) {
+                        for (int newVersion = version + 1; newVersion <= TestSchemas.DATA_VERSION; newVersion++) {
+                            rules[version][newVersion] = fixer.getRule(version, newVersion);
+                        }
+                    }
+                    return rules;
+                }));
+            }
+            start.countDown();
+
+            final TypeRewriteRule[][] first = futures.get(0).get();
+            for (final Future<TypeRewriteRule[][]> future : futures) {
+                final TypeRewriteRule[][] rules = future.get();
+                for (int version = 1; version <= TestSchemas.DATA_VERSION; version++) {
+                    for (int newVersion = version + 1; newVersion <= TestSchemas.DATA_VERSION; newVersion++) {
+                        assertSame(first[version][newVersion], rules[version][newVersion]);
+                        assertSame(first[version][newVersion], fixer.getRule(version, newVersion));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A fix that waits for {@code release} before building its rule, like one that first has to materialize a large schema.
+     */
+    private static final class SlowFix extends DataFix {
+        private final CountDownLatch building;
+        private final CountDownLatch release;
+
+        private SlowFix(final Schema outputSchema, final CountDownLatch building, final CountDownLatch release) {
+            super(outputSchema, false);
+            this.building = building;
+            this.release = release;
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            building.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return fixTypeEverywhere("SlowFix", getInputSchema().getType(TestSchemas.NOTE), ops -> Function.identity());
+        }
+    }
+
+    @Test
+    public void slowRuleBuildsDoNotBlockOtherRanges() throws Exception {
+        final CountDownLatch building = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final DataFixerBuilder builder = new DataFixerBuilder(3);
+        builder.addSchema(1, TestSchemas.Root::new);
+        builder.addFixer(new SlowFix(builder.addSchema(2, Schema::new), building, release));
+        builder.addFixer(new TestSchemas.RenameItemFieldFix(builder.addSchema(3, Schema::new), "count", "amount"));
+        final DataFixerUpper fixer = (DataFixerUpper) builder.build().fixer();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<TypeRewriteRule> slow = executor.submit(() -> fixer.getRule(1, 2));
+            assertTrue(building.await(10, TimeUnit.SECONDS));
+            // another range is built while the slow one is still in progress
+            final TypeRewriteRule other = executor.submit(() -> fixer.getRule(2, 3)).get(10, TimeUnit.SECONDS);
+            assertSame(other, fixer.getRule(2, 3));
+            assertFalse(slow.isDone());
+
+            // a second lookup of the slow range waits for the first one instead of building it again
+            final Future<TypeRewriteRule> waiting = executor.submit(() -> fixer.getRule(1, 2));
+            release.countDown();
+            assertSame(slow.get(10, TimeUnit.SECONDS), waiting.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void backgroundOptimizationServesUnoptimizedRewritesMeanwhile() {
+        final DataFixer reference = TestSchemas.builder().build().fixer();
+        final DataFixerBuilder.Result result = TestSchemas.builder().build();
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        result.optimizeInBackground(tasks::add);
+        final DataFixerUpper fixer = (DataFixerUpper) result.fixer();
+        final Type<?> type = fixer.getType(TestSchemas.ENTITY, 1);
+        final TypeRewriteRule rule = fixer.getRule(1, TestSchemas.DATA_VERSION);
+
+        final List<Dynamic<JsonElement>> inputs = entities(JsonOps.INSTANCE, JsonOps.INSTANCE);
+        for (final Dynamic<JsonElement> input : inputs) {
+            assertEquals(reference.update(TestSchemas.ENTITY, input, 1, TestSchemas.DATA_VERSION).getValue(), fixer.update(TestSchemas.ENTITY, input, 1, TestSchemas.DATA_VERSION).getValue());
+        }
+        // one optimization per pair, however many updates wait for it
+        assertEquals(1, tasks.size());
+        assertFalse(type.isRewriteCached(rule, DataFixerUpper.OPTIMIZATION_RULE));
+
+        tasks.poll().run();
+        assertTrue(type.isRewriteCached(rule, DataFixerUpper.OPTIMIZATION_RULE));
+        final List<Dynamic<JsonElement>> batch = fixer.updateBatch(TestSchemas.ENTITY, inputs, 1, TestSchemas.DATA_VERSION);
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(reference.update(TestSchemas.ENTITY, inputs.get(i), 1, TestSchemas.DATA_VERSION).getValue(), batch.get(i).getValue());
+        }
+        assertTrue(tasks.isEmpty());
+    }
+}
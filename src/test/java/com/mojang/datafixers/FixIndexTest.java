@@ -0,0 +1,95 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.types.Type;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FixIndexTest {
+    private static final Map<DSL.TypeReference, JsonElement> INPUTS = Map.of(
+        TestSchemas.ITEM, TestSchemas.item("count", 1),
+        TestSchemas.ENTITY, TestSchemas.entity("a", 1, TestSchemas.item("count", 1)),
+        TestSchemas.CHUNK, TestSchemas.chunkV1(),
+        TestSchemas.NOTE, new JsonObject()
+    );
+
+    /**
+     * The data the full rewrite DataFixerUpper builds for the range produces, without going through the index.
+     */
+    private static JsonElement rewritten(final DataFixerUpper fixer, final DSL.TypeReference type, final JsonElement input, final int version, final int newVersion) {
+        final Type<?> dataType = fixer.getType(type, version);
+        return dataType.readAndWrite(JsonOps.INSTANCE, fixer.getType(type, newVersion), fixer.getRule(version, newVersion), DataFixerUpper.OPTIMIZATION_RULE, input).getOrThrow();
+    }
+
+    @Test
+    public void skippedUpdatesDoNotChangeData() {
+        final DataFixerUpper fixer = (DataFixerUpper) TestSchemas.builder().build().fixer();
+        for (final Map.Entry<DSL.TypeReference, JsonElement> entry : INPUTS.entrySet()) {
+            final DSL.TypeReference type = entry.getKey();
+            for (int version = 1; version < TestSchemas.DATA_VERSION; version++) {
+                for (int newVersion = version + 1; newVersion <= TestSchemas.DATA_VERSION; newVersion++) {
+                    final Dynamic<JsonElement> input = new Dynamic<>(JsonOps.INSTANCE, entry.getValue());
+                    // skipped updates return the input itself
+                    if (fixer.update(type, input, version, newVersion) == input) {
+                        assertEquals(type.typeName() + " " + version + " -> " + newVersion, entry.getValue(), rewritten(fixer, type, entry.getValue(), version, newVersion));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void recursiveTypesAreSkippedAcrossUnchangedSchemas() {
+        final DataFixer fixer = TestSchemas.builder().build().fixer();
+        final Dynamic<JsonElement> entity = new Dynamic<>(JsonOps.INSTANCE, INPUTS.get(TestSchemas.ENTITY));
+        final Dynamic<JsonElement> chunk = new Dynamic<>(JsonOps.INSTANCE, INPUTS.get(TestSchemas.CHUNK));
+
+        // every schema builds its own recursive family, but neither fixes nor schema changes touch these ranges
+        assertSame(entity, fixer.update(TestSchemas.ENTITY, entity, 2, 3));
+        assertSame(entity, fixer.update(TestSchemas.ENTITY, entity, 4, 5));
+        assertSame(chunk, fixer.update(TestSchemas.CHUNK, chunk, 2, 3));
+        assertSame(chunk, fixer.update(TestSchemas.CHUNK, chunk, 4, 5));
+        assertNotSame(entity, fixer.update(TestSchemas.ENTITY, entity, 2, 4));
+        assertNotSame(chunk, fixer.update(TestSchemas.CHUNK, chunk, 3, 6));
+    }
+
+    @Test
+    public void touchedAndUntouchedTypes() {
+        final DataFixer fixer = TestSchemas.builder().build().fixer();
+        final Dynamic<JsonElement> item = new Dynamic<>(JsonOps.INSTANCE, TestSchemas.item("count", 1));
+        final Dynamic<JsonElement> entity = new Dynamic<>(JsonOps.INSTANCE, INPUTS.get(TestSchemas.ENTITY));
+        final Dynamic<JsonElement> note = new Dynamic<>(JsonOps.INSTANCE, new JsonObject());
+
+        assertNotSame(item, fixer.update(TestSchemas.ITEM, item, 1, 2));
+        assertSame(item, fixer.update(TestSchemas.ITEM, item, 2, 5));
+        assertNotSame(entity, fixer.update(TestSchemas.ENTITY, entity, 3, 4));
+        assertNotSame("entities hold items", entity, fixer.update(TestSchemas.ENTITY, entity, 5, 6));
+        assertSame(note, fixer.update(TestSchemas.NOTE, note, 1, TestSchemas.DATA_VERSION));
+    }
+
+    @Test
+    public void onlyQueriedSchemasAreMaterialized() {
+        final DataFixer fixer = TestSchemas.builder().build().fixer();
+        final Dynamic<JsonElement> note = new Dynamic<>(JsonOps.INSTANCE, new JsonObject());
+        assertSame(note, fixer.update(TestSchemas.NOTE, note, 1, TestSchemas.DATA_VERSION));
+
+        // the schemas of both versions and the ones the fixes are built from are needed, but not the ones in between
+        assertTrue(fixer.getSchema(DataFixUtils.makeKey(1)).isMaterialized());
+        assertTrue(fixer.getSchema(DataFixUtils.makeKey(4)).isMaterialized());
+        assertTrue(fixer.getSchema(DataFixUtils.makeKey(6)).isMaterialized());
+        assertFalse(fixer.getSchema(DataFixUtils.makeKey(3)).isMaterialized());
+        assertFalse(fixer.getSchema(DataFixUtils.makeKey(5)).isMaterialized());
+    }
+}
@@ -0,0 +1,164 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.types.templates.TypeTemplate;
+import com.mojang.serialization.Dynamic;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Small schemas for the data fixer tests: chunks holding a recursive entity family dispatched on "id", entities holding
+ * items, and a note type no fix touches.
+ * <ul>
+ *     <li>1: root schema</li>
+ *     <li>2: items rename "count" to "amount"</li>
+ *     <li>3: schema without fix</li>
+ *     <li>4: entities of kind "a" increment "value"</li>
+ *     <li>5: schema without fix</li>
+ *     <li>6: items rename "amount" to "size"</li>
+ * </ul>
+ */
+final class TestSchemas {
+    static final DSL.TypeReference ITEM = () -> "item";
+    static final DSL.TypeReference ENTITY = () -> "entity";
+    static final DSL.TypeReference CHUNK = () -> "chunk";
+    static final DSL.TypeReference NOTE = () -> "note";
+
+    static final int DATA_VERSION = 6;
+
+    private TestSchemas() {
+    }
+
+    static DataFixerBuilder builder() {
+        final DataFixerBuilder builder = new DataFixerBuilder(DATA_VERSION);
+        builder.addSchema(1, Root::new);
+        builder.addFixer(new RenameItemFieldFix(builder.addSchema(2, Schema::new), "count", "amount"));
+        builder.addSchema(3, Schema::new);
+        builder.addFixer(new IncrementEntityFieldFix(builder.addSchema(4, Schema::new), "a"));
+        builder.addSchema(5, Schema::new);
+        builder.addFixer(new RenameItemFieldFix(builder.addSchema(6, Schema::new), "amount", "size"));
+        return builder;
+    }
+
+    static JsonObject item(final String countField, final int count) {
+        final JsonObject item = new JsonObject();
+        item.addProperty("name", "stone");
+        item.addProperty(countField, count);
+        return item;
+    }
+
+    static JsonObject entity(final String id, final int value, final JsonObject... items) {
+        final JsonObject entity = new JsonObject();
+        entity.addProperty("id", id);
+        entity.addProperty("value", value);
+        final JsonArray list = new JsonArray();
+        for (final JsonObject item : items) {
+            list.add(item);
+        }
+        entity.add("Items", list);
+        return entity;
+    }
+
+    static JsonObject chunk(final JsonObject... entities) {
+        final JsonObject chunk = new JsonObject();
+        chunk.addProperty("x", 1);
+        final JsonArray list = new JsonArray();
+        for (final JsonObject entity : entities) {
+            list.add(entity);
+        }
+        chunk.add("Entities", list);
+        return chunk;
+    }
+
+    /**
+     * A chunk as written at version 1, with entities of both kinds.
+     */
+    static JsonElement chunkV1() {
+        final JsonObject passenger = entity("a", 10, item("count", 3));
+        final JsonObject rider = entity("b", 20, item("count", 4));
+        final JsonArray passengers = new JsonArray();
+        passengers.add(passenger);
+        rider.add("Passengers", passengers);
+        return chunk(entity("a", 1, item("count", 1), item("count", 2)), rider);
+    }
+
+    static final class Root extends Schema {
+        Root(final int versionKey, final Schema parent) {
+            super(versionKey, parent);
+        }
+
+        @Override
+        public void registerTypes(final Schema schema, final Map<String, Supplier<TypeTemplate>> entityTypes, final Map<String, Supplier<TypeTemplate>> blockEntityTypes) {
+            schema.registerType(false, ITEM, DSL::remainder);
+            schema.registerType(true, ENTITY, () -> DSL.taggedChoiceLazy("id", DSL.string(), entityTypes));
+            schema.registerType(false, CHUNK, () -> DSL.optionalFields("Entities", DSL.list(ENTITY.in(schema))));
+            schema.registerType(false, NOTE, DSL::remainder);
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            final Map<String, Supplier<TypeTemplate>> entities = new HashMap<>();
+            for (final String id : new String[] {"a", "b"}) {
+                schema.register(entities, id, name -> DSL.optionalFields(
+                    "Items", DSL.list(ITEM.in(schema)),
+                    "Passengers", DSL.list(ENTITY.in(schema))
+                ));
+            }
+            return entities;
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerBlockEntities(final Schema schema) {
+            return new HashMap<>();
+        }
+    }
+
+    static final class RenameItemFieldFix extends DataFix {
+        private final String from;
+        private final String to;
+
+        RenameItemFieldFix(final Schema outputSchema, final String from, final String to) {
+            super(outputSchema, false);
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            return fixTypeEverywhereTyped("RenameItemFieldFix " + from, getInputSchema().getType(ITEM), typed -> typed.update(DSL.remainderFinder(), this::fix));
+        }
+
+        private <T> Dynamic<T> fix(final Dynamic<T> input) {
+            final Optional<Dynamic<T>> value = input.get(from).result();
+            return value.isPresent() ? input.remove(from).set(to, value.get()) : input;
+        }
+    }
+
+    static final class IncrementEntityFieldFix extends DataFix {
+        private final String entityId;
+
+        IncrementEntityFieldFix(final Schema outputSchema, final String entityId) {
+            super(outputSchema, false);
+            this.entityId = entityId;
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            final Type<?> choiceType = getInputSchema().getChoiceType(ENTITY, entityId);
+            return fixTypeEverywhereTyped("IncrementEntityFieldFix " + entityId, getInputSchema().getType(ENTITY), typed ->
+                typed.updateTyped(DSL.namedChoice(entityId, choiceType), entity ->
+                    entity.update(DSL.remainderFinder(), dynamic -> dynamic.set("value", dynamic.createInt(dynamic.get("value").asInt(0) + 1)))
+                )
+            );
+        }
+    }
+}
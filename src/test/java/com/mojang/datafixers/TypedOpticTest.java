@@ -0,0 +1,183 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.common.reflect.TypeToken;
+import com.mojang.datafixers.kinds.IdF;
+import com.mojang.datafixers.optics.Forget;
+import com.mojang.datafixers.optics.ForgetOpt;
+import com.mojang.datafixers.optics.Optics;
+import com.mojang.datafixers.optics.ReForgetC;
+import com.mojang.datafixers.optics.Traversal;
+import com.mojang.datafixers.optics.profunctors.TraversalP;
+import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.types.templates.TaggedChoice;
+import com.mojang.datafixers.util.Either;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.JavaOps;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the compiled lens, affine and traversal forms of typed optics, and the Typed accessors using them, against
+ * evaluating the profunctor chain of the optic.
+ */
+public class TypedOpticTest {
+    private static final Type<Pair<Integer, String>> RECORD = DSL.and(DSL.field("x", DSL.intType()), DSL.field("y", DSL.string()));
+    private static final Type<Pair<Integer, Float>> OTHER_RECORD = DSL.and(DSL.field("x", DSL.intType()), DSL.field("z", DSL.floatType()));
+    private static final Type<Pair<String, Float>> NO_X_RECORD = DSL.and(DSL.field("y", DSL.string()), DSL.field("z", DSL.floatType()));
+    private static final OpticFinder<Integer> X = DSL.fieldFinder("x", DSL.intType());
+
+    private static <S, T, A, B> A profunctorView(final TypedOptic<S, T, A, B> optic, final S s) {
+        return Forget.unbox(optic.apply(
+            new TypeToken<Forget.Instance.Mu<A>>() {},
+            new Forget.Instance<>(),
+            Optics.<A, A, B>forget(Function.identity())
+        )).run(s);
+    }
+
+    private static <S, T, A, B> Optional<A> profunctorPreview(final TypedOptic<S, T, A, B> optic, final S s) {
+        return ForgetOpt.unbox(optic.apply(
+            new TypeToken<ForgetOpt.Instance.Mu<A>>() {},
+            new ForgetOpt.Instance<>(),
+            Optics.<A, A, B>forgetOpt(Optional::of)
+        )).run(s);
+    }
+
+    private static <S, T, A, B> T profunctorSet(final TypedOptic<S, T, A, B> optic, final S s, final B b) {
+        return ReForgetC.unbox(optic.apply(
+            new TypeToken<ReForgetC.Instance.Mu<B>>() {},
+            new ReForgetC.Instance<>(),
+            Optics.<B, A, B>reForgetC("set", Either.left(Function.identity()))
+        )).run(s, b);
+    }
+
+    private static <S, T, A, B> T profunctorUpdate(final TypedOptic<S, T, A, B> optic, final S s, final Function<A, B> function) {
+        final Traversal<S, T, A, B> traversal = Optics.toTraversal(optic.upCast(TraversalP.Mu.TYPE_TOKEN).orElseThrow());
+        return IdF.get(traversal.wander(IdF.Instance.INSTANCE, a -> IdF.create(function.apply(a))).apply(s));
+    }
+
+    private static <S, T, A, B> T compiledUpdate(final TypedOptic<S, T, A, B> optic, final S s, final Function<A, B> function) {
+        return IdF.get(optic.traversal().orElseThrow().wander(IdF.Instance.INSTANCE, a -> IdF.create(function.apply(a))).apply(s));
+    }
+
+    private static <S> Typed<S> typed(final Type<S> type, final S value) {
+        return new Typed<>(type, JavaOps.INSTANCE, value);
+    }
+
+    private static <S> void assertLensMatches(final TypedOptic<S, ?, Integer, Integer> optic, final S value) {
+        assertTrue(optic.lens().isPresent());
+        assertSame(optic.lens().get(), optic.lens().get());
+        assertEquals(profunctorView(optic, value), optic.lens().get().view(value));
+        assertEquals(profunctorSet(optic, value, 42), optic.lens().get().update(42, value));
+        assertEquals(profunctorUpdate(optic, value, i -> i * 2), compiledUpdate(optic, value, i -> i * 2));
+    }
+
+    private static <S> void assertAffineMatches(final TypedOptic<S, ?, Integer, Integer> optic, final S value) {
+        assertTrue(optic.affine().isPresent());
+        assertEquals(profunctorPreview(optic, value), optic.affine().get().preview(value).right());
+        if (optic.affine().get().preview(value).right().isPresent()) {
+            // setting a missing focus through a prism builds a new value, which Typed.set keeps doing through the profunctor
+            assertEquals(profunctorSet(optic, value, 42), optic.affine().get().set(42, value));
+        }
+        assertEquals(profunctorUpdate(optic, value, i -> i * 2), compiledUpdate(optic, value, i -> i * 2));
+    }
+
+    private static <S> void assertTypedMatches(final Type<S> type, final S value) {
+        final TypedOptic<S, ?, Integer, Integer> optic = X.findType(type, false).orThrow();
+        final Typed<S> typed = typed(type, value);
+        assertEquals(profunctorPreview(optic, value), typed.getOptional(X));
+        assertEquals(profunctorSet(optic, value, 42), typed.set(X, 42).getValue());
+        assertEquals(profunctorUpdate(optic, value, i -> i * 2), typed.update(X, i -> i * 2).getValue());
+        if (optic.lens().isPresent()) {
+            assertEquals(profunctorView(optic, value), typed.get(X));
+        }
+    }
+
+    @Test
+    public void lens() {
+        final TypedOptic<Pair<Integer, String>, ?, Integer, Integer> optic = X.findType(RECORD, false).orThrow();
+        assertLensMatches(optic, Pair.of(1, "a"));
+        assertAffineMatches(optic, Pair.of(1, "a"));
+        assertTypedMatches(RECORD, Pair.of(1, "a"));
+
+        final Typed<?> changed = typed(RECORD, Pair.of(1, "a")).set(X, DSL.string(), "one");
+        assertEquals(Pair.of("one", "a"), changed.getValue());
+        assertEquals(DSL.and(DSL.field("x", DSL.string()), DSL.field("y", DSL.string())), changed.getType());
+    }
+
+    @Test
+    public void prism() {
+        final Type<Either<Integer, String>> type = DSL.or(DSL.intType(), DSL.string());
+        final TypedOptic<Either<Integer, String>, Either<Integer, String>, Integer, Integer> optic = TypedOptic.inj1(DSL.intType(), DSL.string(), DSL.intType());
+        assertFalse(optic.lens().isPresent());
+        assertAffineMatches(optic, Either.left(1));
+        assertAffineMatches(optic, Either.right("a"));
+
+        final Typed<Either<Integer, String>> typed = typed(type, Either.left(1));
+        final OpticFinder<Integer> finder = DSL.typeFinder(DSL.intType());
+        assertEquals(Optional.of(1), typed.getOptional(finder));
+        assertEquals(Either.left(2), typed.update(finder, i -> i * 2).getValue());
+        assertEquals(Optional.empty(), typed(type, Either.<Integer, String>right("a")).getOptional(finder));
+        // a prism sets by building a new value, also over the other case
+        assertEquals(profunctorSet(optic, Either.right("a"), 42), typed(type, Either.<Integer, String>right("a")).set(finder, 42).getValue());
+    }
+
+    @Test
+    public void traversal() {
+        final Type<List<Integer>> type = DSL.list(DSL.intType());
+        final TypedOptic<List<Integer>, List<Integer>, Integer, Integer> optic = TypedOptic.list(DSL.intType(), DSL.intType());
+        assertFalse(optic.lens().isPresent());
+        assertFalse(optic.affine().isPresent());
+        assertSame(optic.traversal().orElseThrow(), optic.traversal().orElseThrow());
+        assertEquals(profunctorUpdate(optic, List.of(1, 2, 3), i -> i * 2), compiledUpdate(optic, List.of(1, 2, 3), i -> i * 2));
+        assertEquals(List.of(1, 2, 3), typed(type, List.of(1, 2, 3)).getAll(optic));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TaggedChoice.TaggedChoiceType<String> choice(final Map<String, Type<?>> types) {
+        return (TaggedChoice.TaggedChoiceType<String>) (Type<?>) DSL.taggedChoiceType("id", DSL.string(), types);
+    }
+
+    @Test
+    public void taggedChoiceMergedLens() {
+        final TaggedChoice.TaggedChoiceType<String> type = choice(Map.of("a", RECORD, "b", OTHER_RECORD));
+        final TypedOptic<Pair<String, ?>, ?, Integer, Integer> optic = X.findType(type, false).orThrow();
+        for (final Pair<String, ?> value : List.<Pair<String, ?>>of(Pair.of("a", Pair.of(1, "a")), Pair.of("b", Pair.of(2, 0.5f)))) {
+            assertLensMatches(optic, value);
+            assertAffineMatches(optic, value);
+            assertTypedMatches(type, value);
+        }
+    }
+
+    @Test
+    public void taggedChoiceMergedAffine() {
+        final TaggedChoice.TaggedChoiceType<String> type = choice(Map.of("a", RECORD, "b", OTHER_RECORD, "c", NO_X_RECORD));
+        final TypedOptic<Pair<String, ?>, ?, Integer, Integer> optic = X.findType(type, false).orThrow();
+        assertFalse(optic.lens().isPresent());
+        for (final Pair<String, ?> value : List.<Pair<String, ?>>of(Pair.of("a", Pair.of(1, "a")), Pair.of("b", Pair.of(2, 0.5f)), Pair.of("c", Pair.of("c", 0.5f)))) {
+            assertAffineMatches(optic, value);
+            assertTypedMatches(type, value);
+        }
+    }
+
+    @Test
+    public void taggedChoiceMergedTraversal() {
+        final TaggedChoice.TaggedChoiceType<String> type = choice(Map.of("a", DSL.list(DSL.intType()), "b", DSL.and(DSL.intType(), DSL.string()), "c", DSL.string()));
+        final TypedOptic<Pair<String, ?>, ?, Integer, Integer> optic = DSL.typeFinder(DSL.intType()).findType(type, true).orThrow();
+        assertFalse(optic.affine().isPresent());
+        for (final Pair<String, ?> value : List.<Pair<String, ?>>of(Pair.of("a", List.of(1, 2, 3)), Pair.of("b", Pair.of(4, "b")), Pair.of("c", "c"))) {
+            assertEquals(profunctorUpdate(optic, value, i -> i * 2), compiledUpdate(optic, value, i -> i * 2));
+            assertEquals(profunctorUpdate(optic, value, i -> i * 2), typed(type, value).updateRecursive(DSL.typeFinder(DSL.intType()), i -> i * 2).getValue());
+        }
+    }
+}
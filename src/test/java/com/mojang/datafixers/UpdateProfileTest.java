@@ -0,0 +1,135 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UpdateProfileTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static UpdateProfile recorded() {
+        final UpdateProfile profile = new UpdateProfile(6);
+        profile.record("item", 1, 6, 5);
+        profile.record("chunk", 2, 6, 5);
+        profile.record("item", 3, 6, 4);
+        profile.record("item", 3, 6, 5);
+        // not to the data version, so not counted
+        profile.record("item", 2, 5, 100);
+        return profile;
+    }
+
+    @Test
+    public void hottestPairsComeFirst() {
+        final UpdateProfile profile = recorded();
+        assertFalse(profile.isLoaded());
+        assertEquals(List.of(Pair.of("item", 3), Pair.of("chunk", 2), Pair.of("item", 1)), profile.hottest(Set.of("item", "chunk")));
+        assertEquals(List.of(Pair.of("item", 3), Pair.of("item", 1)), profile.hottest(Set.of("item")));
+        assertEquals(List.of(), profile.hottest(Set.of("note")));
+    }
+
+    @Test
+    public void savedCountsAreLoadedAndAddedTo() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("profile.json");
+        recorded().save(path, "fingerprint");
+
+        final UpdateProfile loaded = new UpdateProfile(6);
+        assertTrue(loaded.load(path, "fingerprint"));
+        assertTrue(loaded.isLoaded());
+        assertEquals(recorded().hottest(Set.of("item", "chunk")), loaded.hottest(Set.of("item", "chunk")));
+
+        loaded.record("item", 1, 6, 10);
+        assertEquals(List.of(Pair.of("item", 1), Pair.of("item", 3), Pair.of("chunk", 2)), loaded.hottest(Set.of("item", "chunk")));
+        loaded.save(path, "fingerprint");
+        final UpdateProfile reloaded = new UpdateProfile(6);
+        assertTrue(reloaded.load(path, "fingerprint"));
+        assertEquals(loaded.hottest(Set.of("item", "chunk")), reloaded.hottest(Set.of("item", "chunk")));
+    }
+
+    @Test
+    public void staleOrMalformedProfilesAreIgnored() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("profile.json");
+        assertFalse(new UpdateProfile(6).load(path, "fingerprint"));
+
+        recorded().save(path, "fingerprint");
+        assertFalse(new UpdateProfile(6).load(path, "other"));
+        assertFalse(new UpdateProfile(7).load(path, "fingerprint"));
+
+        Files.writeString(path, "{\"fingerprint\":\"fingerprint\"}", StandardCharsets.UTF_8);
+        final UpdateProfile malformed = new UpdateProfile(6);
+        assertFalse(malformed.load(path, "fingerprint"));
+        assertFalse(malformed.isLoaded());
+    }
+
+    @Test
+    public void optimizeOnlyPreparesProfiledPairs() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("profile.json");
+        final DataFixerBuilder.Result first = TestSchemas.builder().build();
+        first.recordProfile();
+        final Dynamic<JsonElement> item = new Dynamic<>(JsonOps.INSTANCE, TestSchemas.item("count", 1));
+        first.fixer().update(TestSchemas.ITEM, item, 1, TestSchemas.DATA_VERSION);
+        first.fixer().update(TestSchemas.NOTE, new Dynamic<>(JsonOps.INSTANCE, new JsonObject()), 2, TestSchemas.DATA_VERSION);
+        first.saveProfile(path);
+
+        final DataFixerBuilder.Result second = TestSchemas.builder().build();
+        assertTrue(second.loadProfile(path));
+        second.optimize(Set.of(TestSchemas.ITEM, TestSchemas.ENTITY, TestSchemas.CHUNK), Runnable::run).join();
+
+        final DataFixerUpper fixer = (DataFixerUpper) second.fixer();
+        assertTrue(fixer.getType(TestSchemas.ITEM, 1).isRewriteCached(fixer.getRule(1, TestSchemas.DATA_VERSION), DataFixerUpper.OPTIMIZATION_RULE));
+        assertFalse(fixer.getType(TestSchemas.ITEM, 2).isRewriteCached(fixer.getRule(2, TestSchemas.DATA_VERSION), DataFixerUpper.OPTIMIZATION_RULE));
+        assertFalse(fixer.getType(TestSchemas.ENTITY, 4).isRewriteCached(fixer.getRule(4, TestSchemas.DATA_VERSION), DataFixerUpper.OPTIMIZATION_RULE));
+    }
+
+    @Test
+    public void optimizeSkipsPairsNothingTouches() {
+        final DataFixerBuilder.Result result = TestSchemas.builder().build();
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        result.optimize(Set.of(TestSchemas.ITEM, TestSchemas.NOTE), tasks::add);
+        // fixes are at versions 2, 4 and 6: no fix changes notes, and nothing is left to change items from version 6
+        assertEquals(2, tasks.size());
+        tasks.forEach(Runnable::run);
+
+        final DataFixerUpper fixer = (DataFixerUpper) result.fixer();
+        assertTrue(fixer.getType(TestSchemas.ITEM, 2).isRewriteCached(fixer.getRule(2, TestSchemas.DATA_VERSION), DataFixerUpper.OPTIMIZATION_RULE));
+        assertTrue(fixer.getType(TestSchemas.ITEM, 4).isRewriteCached(fixer.getRule(4, TestSchemas.DATA_VERSION), DataFixerUpper.OPTIMIZATION_RULE));
+    }
+
+    @Test
+    public void fingerprintCoversVersionsAndClasses() {
+        final Int2ObjectSortedMap<Schema> schemas = new Int2ObjectAVLTreeMap<>();
+        schemas.put(DataFixUtils.makeKey(1), new Schema(DataFixUtils.makeKey(1), null));
+        final Schema schema = new Schema(DataFixUtils.makeKey(2), null);
+        schemas.put(DataFixUtils.makeKey(2), schema);
+        final List<DataFix> fixes = List.of(new TestSchemas.RenameItemFieldFix(schema, "count", "amount"));
+        final String fingerprint = UpdateProfile.fingerprint(schemas, fixes, 2);
+
+        assertEquals(fingerprint, UpdateProfile.fingerprint(new Int2ObjectAVLTreeMap<>(schemas), List.of(new TestSchemas.RenameItemFieldFix(schema, "count", "amount")), 2));
+        assertNotEquals(fingerprint, UpdateProfile.fingerprint(schemas, fixes, 3));
+        assertNotEquals(fingerprint, UpdateProfile.fingerprint(schemas, List.of(new TestSchemas.IncrementEntityFieldFix(schema, "a")), 2));
+        assertNotEquals(fingerprint, UpdateProfile.fingerprint(schemas, List.of(), 2));
+    }
+}
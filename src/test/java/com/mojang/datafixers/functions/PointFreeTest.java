@@ -0,0 +1,102 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.functions;
+
+import com.mojang.datafixers.types.Type;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PointFreeTest {
+    /**
+     * Like most functions, holds on to the ops it was built for.
+     */
+    private static final class OpsFunction extends PointFree<Supplier<DynamicOps<?>>> {
+        private int evaluations;
+
+        @Override
+        public Type<Supplier<DynamicOps<?>>> type() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Function<DynamicOps<?>, Supplier<DynamicOps<?>>> eval() {
+            return ops -> {
+                evaluations++;
+                return () -> ops;
+            };
+        }
+
+        @Override
+        public String toString(final int level) {
+            return "ops";
+        }
+    }
+
+    @Test
+    public void evaluatesOncePerOps() {
+        final OpsFunction function = new OpsFunction();
+        final Supplier<DynamicOps<?>> json = function.evalCached(JsonOps.INSTANCE);
+        final Supplier<DynamicOps<?>> compressed = function.evalCached(JsonOps.COMPRESSED);
+
+        assertSame(JsonOps.INSTANCE, json.get());
+        assertSame(JsonOps.COMPRESSED, compressed.get());
+        assertNotSame(json, compressed);
+        assertSame(json, function.evalCached(JsonOps.INSTANCE));
+        assertSame(compressed, function.evalCached(JsonOps.COMPRESSED));
+        assertEquals(2, function.evaluations);
+    }
+
+    private static WeakReference<DynamicOps<?>> evalWithNewOps(final OpsFunction function) {
+        final DynamicOps<?> ops = new JsonOps(false) {};
+        function.evalCached(ops);
+        return new WeakReference<>(ops);
+    }
+
+    @Test
+    public void doesNotRetainDroppedOps() throws InterruptedException {
+        final OpsFunction function = new OpsFunction();
+        final WeakReference<DynamicOps<?>> first = evalWithNewOps(function);
+        for (int i = 0; i < 100; i++) {
+            function.evalCached(new JsonOps(false) {});
+        }
+        assertEquals(101, function.evaluations);
+
+        for (int i = 0; i < 20 && first.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("the first ops is still reachable from the cache", first.get());
+    }
+
+    @Test
+    public void keepsTheMostRecentlyAddedOps() {
+        final OpsFunction function = new OpsFunction();
+        final List<DynamicOps<?>> ops = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            ops.add(new JsonOps(false) {});
+            function.evalCached(ops.get(i));
+        }
+        assertEquals(9, function.evaluations);
+
+        // the last eight are still cached, whatever order they are asked for in
+        for (int i = 8; i > 0; i--) {
+            assertSame(ops.get(i), function.evalCached(ops.get(i)).get());
+        }
+        assertEquals(9, function.evaluations);
+        // the first one was dropped when the ninth was added
+        function.evalCached(ops.get(0));
+        assertEquals(10, function.evaluations);
+    }
+}
@@ -0,0 +1,82 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.schemas;
+
+import com.mojang.datafixers.DSL;
+import com.mojang.datafixers.types.templates.TypeTemplate;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaTest {
+    private static final DSL.TypeReference TREE = () -> "tree";
+    private static final DSL.TypeReference FOREST = () -> "forest";
+
+    private static final class SlowSchema extends Schema {
+        private final CountDownLatch registering = new CountDownLatch(1);
+        private int registrations;
+
+        private SlowSchema() {
+            super(1, null);
+        }
+
+        @Override
+        public void registerTypes(final Schema schema, final Map<String, Supplier<TypeTemplate>> entityTypes, final Map<String, Supplier<TypeTemplate>> blockEntityTypes) {
+            registrations++;
+            schema.registerType(true, TREE, () -> DSL.list(TREE.in(schema)));
+            // the registering thread may look templates up while registering
+            assertNotNull(schema.id(TREE.typeName()));
+            registering.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (final InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            schema.registerType(false, FOREST, () -> DSL.list(TREE.in(schema)));
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            return Map.of();
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerBlockEntities(final Schema schema) {
+            return Map.of();
+        }
+    }
+
+    @Test
+    public void lazyRegistration() {
+        final SlowSchema schema = new SlowSchema();
+        assertFalse(schema.isMaterialized());
+        assertEquals(0, schema.registrations);
+
+        assertNotNull(schema.getType(FOREST));
+        assertTrue(schema.isMaterialized());
+        assertNotNull(schema.getType(TREE));
+        assertEquals(1, schema.registrations);
+    }
+
+    @Test
+    public void concurrentLookupWaitsForRegistration() throws Exception {
+        final SlowSchema schema = new SlowSchema();
+        final CompletableFuture<TypeTemplate> first = CompletableFuture.supplyAsync(() -> schema.resolveTemplate(FOREST.typeName()));
+        assertTrue(schema.registering.await(10, TimeUnit.SECONDS));
+
+        // registration is under way on the other thread, this must wait for it instead of seeing half of it
+        assertNotNull(schema.resolveTemplate(FOREST.typeName()));
+        assertNotNull(schema.id(FOREST.typeName()));
+        assertNotNull(first.get(10, TimeUnit.SECONDS));
+        assertEquals(1, schema.registrations);
+    }
+}
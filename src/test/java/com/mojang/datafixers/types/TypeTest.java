@@ -0,0 +1,167 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.types;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.DSL;
+import com.mojang.datafixers.DataFix;
+import com.mojang.datafixers.DataFixUtils;
+import com.mojang.datafixers.OpticFinder;
+import com.mojang.datafixers.RewriteResult;
+import com.mojang.datafixers.TypeRewriteRule;
+import com.mojang.datafixers.TypedOptic;
+import com.mojang.datafixers.functions.PointFreeRule;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.templates.Hook;
+import com.mojang.datafixers.util.Either;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TypeTest {
+    /**
+     * Matches any type, but leaves its result type out of equals and hashCode.
+     */
+    private static final class LooseMatcher<FT, FR> implements Type.TypeMatcher<FT, FR> {
+        private final Type<FR> resultType;
+        private final int id;
+
+        private LooseMatcher(final Type<FR> resultType, final int id) {
+            this.resultType = resultType;
+            this.id = id;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <S> Either<TypedOptic<S, ?, FT, FR>, Type.FieldNotFoundException> match(final Type<S> targetType) {
+            return Either.left((TypedOptic<S, ?, FT, FR>) (TypedOptic<?, ?, ?, ?>) TypedOptic.adapter(targetType, resultType));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof LooseMatcher<?, ?> && id == ((LooseMatcher<?, ?>) o).id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+
+    @Test
+    public void finderLookupsAreCached() {
+        final Type<Pair<Integer, String>> type = DSL.and(DSL.field("a", DSL.intType()), DSL.field("b", DSL.string()));
+        final OpticFinder<Integer> finder = DSL.fieldFinder("a", DSL.intType());
+        final TypedOptic<Pair<Integer, String>, ?, Integer, Integer> optic = finder.findType(type, false).left().orElseThrow();
+        assertSame(optic, finder.findType(type, false).left().orElseThrow());
+        assertSame(optic, DSL.fieldFinder("a", DSL.intType()).findType(type, false).left().orElseThrow());
+
+        final TypedOptic<Pair<Integer, String>, ?, Integer, Float> changed = finder.findType(type, DSL.floatType(), false).left().orElseThrow();
+        assertEquals(DSL.floatType(), changed.bType());
+        assertTrue(finder.findType(DSL.and(DSL.field("b", DSL.string()), DSL.remainderType()), false).right().isPresent());
+    }
+
+    @Test
+    public void resultTypeIsPartOfTheKey() {
+        final Type<Integer> type = DSL.intType();
+        final Either<? extends TypedOptic<Integer, ?, Integer, Integer>, Type.FieldNotFoundException> first = type.findTypeCached(type, DSL.intType(), new LooseMatcher<>(DSL.intType(), 1), false);
+        final Either<? extends TypedOptic<Integer, ?, Integer, String>, Type.FieldNotFoundException> second = type.findTypeCached(type, DSL.string(), new LooseMatcher<>(DSL.string(), 1), false);
+        assertEquals(DSL.intType(), first.left().orElseThrow().tType());
+        assertEquals(DSL.string(), second.left().orElseThrow().tType());
+        assertEquals(DSL.string(), type.findTypeCached(type, DSL.string(), new LooseMatcher<>(DSL.string(), 1), true).left().orElseThrow().tType());
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        final Type<Integer> type = DSL.intType();
+        for (int i = 0; i < Type.FIND_TYPE_CACHE_SIZE + 100; i++) {
+            type.findTypeCached(type, type, new LooseMatcher<>(type, -1 - i), false);
+        }
+        assertTrue(Type.findTypeCacheSize() <= Type.FIND_TYPE_CACHE_SIZE);
+    }
+
+    /**
+     * Marks every value it writes.
+     */
+    private static final Hook.HookFunction MARK = new Hook.HookFunction() {
+        @Override
+        public <T> T apply(final DynamicOps<T> ops, final T value) {
+            return ops.set(value, "written", ops.createBoolean(true));
+        }
+    };
+
+    /**
+     * A fix over the given type whose function returns every value unchanged.
+     */
+    private static <A> TypeRewriteRule unchangedRule(final Type<A> type) {
+        return new DataFix(new Schema(DataFixUtils.makeKey(1), null), false) {
+            @Override
+            protected TypeRewriteRule makeRule() {
+                return fixTypeEverywhere("unchanged", type, ops -> Function.identity());
+            }
+        }.getRule();
+    }
+
+    private static <A> JsonElement decodeAndEncode(final Type<A> type, final JsonElement input) {
+        final Pair<A, JsonElement> decoded = type.codec().decode(JsonOps.INSTANCE, input).getOrThrow();
+        return type.codec().encode(decoded.getFirst(), JsonOps.INSTANCE, decoded.getSecond()).getOrThrow();
+    }
+
+    @Test
+    public void unchangedValuesAreStillEncoded() {
+        final Type<Pair<Integer, Dynamic<?>>> type = DSL.hook(DSL.and(DSL.field("x", DSL.intType()), DSL.remainderType()), Hook.HookFunction.IDENTITY, MARK);
+        final TypeRewriteRule rule = unchangedRule(type);
+        final JsonObject input = new JsonObject();
+        // read as 1 by the int codec
+        input.addProperty("x", 1.5);
+        input.addProperty("other", "a");
+
+        final JsonElement expected = decodeAndEncode(type, input);
+        assertEquals(1, expected.getAsJsonObject().get("x").getAsInt());
+        assertTrue(expected.getAsJsonObject().get("written").getAsBoolean());
+        assertEquals(expected, type.readAndWrite(JsonOps.INSTANCE, type, rule, PointFreeRule.nop(), input).getOrThrow());
+        assertEquals(expected, type.readAndWriteFunction(JsonOps.INSTANCE, type, rule, PointFreeRule.nop()).getOrThrow().apply(input).getOrThrow());
+    }
+
+    @Test
+    public void rewritesAreCachedByStructure() {
+        final TypeRewriteRule rule = unchangedRule(DSL.and(DSL.field("cached", DSL.intType()), DSL.remainderType()));
+        final long hits = Type.rewriteCacheStats().hitCount();
+        // equal types and rules, but not the same instances
+        final Optional<? extends RewriteResult<?, ?>> first = DSL.and(DSL.field("cached", DSL.intType()), DSL.remainderType()).rewrite(TypeRewriteRule.seq(List.of(rule, rule)), PointFreeRule.nop());
+        final Optional<? extends RewriteResult<?, ?>> second = DSL.and(DSL.field("cached", DSL.intType()), DSL.remainderType()).rewrite(TypeRewriteRule.seq(List.of(rule, rule)), PointFreeRule.nop());
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.orElseThrow());
+        assertTrue(Type.rewriteCacheStats().hitCount() > hits);
+        assertTrue(Type.rewriteCacheSize() <= Type.REWRITE_CACHE_SIZE);
+    }
+
+    @Test
+    public void equalTypesAreInterned() {
+        assertSame(DSL.and(DSL.field("a", DSL.intType()), DSL.list(DSL.string())), DSL.and(DSL.field("a", DSL.intType()), DSL.list(DSL.string())));
+        assertSame(DSL.or(DSL.intType(), DSL.optional(DSL.string())), DSL.or(DSL.intType(), DSL.optional(DSL.string())));
+        assertSame(
+            DSL.taggedChoiceType("id", DSL.string(), Map.of("a", DSL.intType(), "b", DSL.field("x", DSL.string()))),
+            DSL.taggedChoiceType("id", DSL.string(), Map.of("b", DSL.field("x", DSL.string()), "a", DSL.intType()))
+        );
+        assertSame(DSL.hook(DSL.intType(), Hook.HookFunction.IDENTITY, Hook.HookFunction.IDENTITY), DSL.hook(DSL.intType(), Hook.HookFunction.IDENTITY, Hook.HookFunction.IDENTITY));
+
+        final Type<?> type = DSL.and(DSL.field("a", DSL.intType()), DSL.field("b", DSL.string()));
+        final Type<?> other = DSL.and(DSL.field("a", DSL.intType()), DSL.field("c", DSL.string()));
+        assertNotEquals(type, other);
+        assertEquals(type.hashCode(), DSL.and(DSL.field("a", DSL.intType()), DSL.field("b", DSL.string())).hashCode());
+    }
+}
@@ -0,0 +1,145 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinaryFilesTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static BinaryValue value(final String json) {
+        return JsonOps.INSTANCE.convertTo(BinaryOps.INSTANCE, JsonParser.parseString(json));
+    }
+
+    private static final List<BinaryValue> VALUES = List.of(
+        value("{\"name\":\"first\",\"ids\":[1,2,3]}"),
+        value("\"second\""),
+        value("[{\"a\":true},{\"b\":2.5}]")
+    );
+
+    private Path write(final String name, final List<BinaryValue> values) throws IOException {
+        final Path path = folder.getRoot().toPath().resolve(name);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            for (final BinaryValue value : values) {
+                BinaryFiles.write(channel, value);
+            }
+        }
+        return path;
+    }
+
+    private static void assertMalformed(final Path path) {
+        try {
+            BinaryFiles.forEachValue(path, value -> {});
+            fail("expected the file to be rejected");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(path.toString()));
+        }
+    }
+
+    @Test
+    public void mapsSingleValues() throws IOException {
+        final BinaryValue value = VALUES.get(0);
+        final BinaryValue mapped = BinaryFiles.map(write("single.bin", List.of(value)));
+        assertEquals(value, mapped);
+        assertEquals(BinaryOps.INSTANCE.convertTo(JsonOps.INSTANCE, value), BinaryOps.INSTANCE.convertTo(JsonOps.INSTANCE, mapped));
+    }
+
+    @Test
+    public void mapOnlyChecksWhatIsNavigated() throws IOException {
+        final int count = 1 << 18;
+        final BinaryValue value = BinaryOps.INSTANCE.createMap(Map.of(
+            BinaryOps.INSTANCE.createString("a"), BinaryOps.INSTANCE.createInt(1),
+            BinaryOps.INSTANCE.createString("big"), BinaryOps.INSTANCE.createList(IntStream.range(0, count).mapToObj(BinaryOps.INSTANCE::createInt))
+        ));
+        final Path path = write("large.bin", List.of(value));
+        // break the tag of the last element of the large list, wherever it ended up in the map
+        final byte[] bytes = Files.readAllBytes(path);
+        final int last = lastIndexOf(bytes, new byte[] {BinaryValue.INT, 0, 3, (byte) 0xff, (byte) 0xff});
+        bytes[last] = 0x7f;
+        Files.write(path, bytes);
+        assertTrue(BinaryValue.read(ByteBuffer.wrap(bytes)).error().isPresent());
+
+        final BinaryValue mapped = BinaryFiles.map(path);
+        final Dynamic<BinaryValue> dynamic = new Dynamic<>(BinaryOps.INSTANCE, mapped);
+        assertEquals(1, dynamic.get("a").asInt(-1));
+        assertEquals(count - 2, dynamic.get("big").asStream().limit(count - 1).mapToInt(d -> d.asInt(-1)).max().orElse(-1));
+        try {
+            dynamic.get("big").asStream().collect(Collectors.toList());
+            fail("expected the broken element to be rejected once navigated to");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("tag"));
+        }
+    }
+
+    private static int lastIndexOf(final byte[] bytes, final byte[] pattern) {
+        for (int i = bytes.length - pattern.length; i >= 0; i--) {
+            if (Arrays.equals(bytes, i, i + pattern.length, pattern, 0, pattern.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("pattern not found");
+    }
+
+    @Test(expected = IOException.class)
+    public void mapRejectsTrailingData() throws IOException {
+        BinaryFiles.map(write("trailing.bin", VALUES));
+    }
+
+    @Test
+    public void readsValuesInOrder() throws IOException {
+        final List<BinaryValue> read = new ArrayList<>();
+        BinaryFiles.forEachValue(write("values.bin", VALUES), read::add);
+        assertEquals(VALUES, read);
+
+        final List<BinaryValue> none = new ArrayList<>();
+        BinaryFiles.forEachValue(write("empty.bin", List.of()), none::add);
+        assertEquals(List.of(), none);
+    }
+
+    @Test
+    public void transformsEachValue() throws IOException {
+        final Path output = folder.getRoot().toPath().resolve("output.bin");
+        BinaryFiles.transform(write("input.bin", VALUES), output, value -> BinaryOps.INSTANCE.createList(Stream.of(value)));
+
+        final List<BinaryValue> read = new ArrayList<>();
+        BinaryFiles.forEachValue(output, read::add);
+        assertEquals(VALUES.size(), read.size());
+        for (int i = 0; i < VALUES.size(); i++) {
+            assertEquals(List.of(VALUES.get(i)), BinaryOps.INSTANCE.getStream(read.get(i)).getOrThrow().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedFiles() throws IOException {
+        final Path path = write("truncated.bin", VALUES);
+        final byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertMalformed(path);
+
+        // a header cut short
+        Files.write(path, Arrays.copyOf(bytes, 1));
+        assertMalformed(path);
+    }
+}
@@ -0,0 +1,174 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryOpsTest {
+    private static final class Entry {
+        static final Codec<Entry> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("name").forGetter(e -> e.name),
+            Codec.INT.fieldOf("count").forGetter(e -> e.count),
+            Codec.unboundedMap(Codec.STRING, Codec.DOUBLE).fieldOf("weights").forGetter(e -> e.weights),
+            Codec.LONG.listOf().fieldOf("ids").forGetter(e -> e.ids)
+        ).apply(i, Entry::new));
+
+        private final String name;
+        private final int count;
+        private final Map<String, Double> weights;
+        private final List<Long> ids;
+
+        private Entry(final String name, final int count, final Map<String, Double> weights, final List<Long> ids) {
+            this.name = name;
+            this.count = count;
+            this.weights = weights;
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            final Entry entry = (Entry) o;
+            return count == entry.count && name.equals(entry.name) && weights.equals(entry.weights) && ids.equals(entry.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+
+    /**
+     * Copies the encoding of {@code value} into a fresh buffer followed by another value, and reads both back.
+     */
+    private static BinaryValue reread(final BinaryValue value) {
+        final BinaryValue next = BinaryOps.INSTANCE.createInt(7);
+        final ByteBuffer buffer = ByteBuffer.allocate(value.size() + next.size());
+        buffer.put(value.toByteBuffer()).put(next.toByteBuffer()).flip();
+
+        final BinaryValue read = BinaryValue.read(buffer).getOrThrow(AssertionError::new);
+        assertEquals(value.size(), buffer.position());
+        assertEquals(next, BinaryValue.read(buffer).getOrThrow(AssertionError::new));
+        assertEquals(0, buffer.remaining());
+        return read;
+    }
+
+    private static ByteBuffer bytes(final int... values) {
+        final ByteBuffer buffer = ByteBuffer.allocate(values.length);
+        for (final int value : values) {
+            buffer.put((byte) value);
+        }
+        return buffer.flip();
+    }
+
+    private static void assertMalformed(final ByteBuffer buffer) {
+        final int position = buffer.position();
+        final DataResult<BinaryValue> result = BinaryValue.read(buffer);
+        assertTrue("Expected an error, got " + result, result.isError());
+        assertEquals("position is left alone", position, buffer.position());
+    }
+
+    @Test
+    public void jsonRoundTrip() {
+        final JsonElement json = JsonParser.parseString("{\"name\":\"stone\",\"empty\":{},\"list\":[1,2.5,\"three\",[],[{\"nested\":true}]],\"unicode\":\"\\u00e9\\u4e2d\"}");
+        final BinaryValue value = JsonOps.INSTANCE.convertTo(BinaryOps.INSTANCE, json);
+        final BinaryValue read = reread(value);
+        assertEquals(value, read);
+        assertEquals(json, BinaryOps.INSTANCE.convertTo(JsonOps.INSTANCE, read));
+    }
+
+    @Test
+    public void codecRoundTrip() {
+        final Entry entry = new Entry("stone", 64, Map.of("a", 0.5, "b", -2.0), List.of(1L, Long.MAX_VALUE, Long.MIN_VALUE));
+        final BinaryValue value = Entry.CODEC.encodeStart(BinaryOps.INSTANCE, entry).getOrThrow(AssertionError::new);
+        assertEquals(entry, Entry.CODEC.parse(BinaryOps.INSTANCE, reread(value)).getOrThrow(AssertionError::new));
+    }
+
+    @Test
+    public void arrayRoundTrip() {
+        final BinaryOps ops = BinaryOps.INSTANCE;
+        assertArrayEquals(new byte[] {1, -2, 3}, ops.getByteArray(reread(ops.createByteArray(new byte[] {1, -2, 3}))).getOrThrow(AssertionError::new));
+        assertArrayEquals(new int[] {1, -2, Integer.MAX_VALUE}, ops.getIntArray(reread(ops.createIntArray(new int[] {1, -2, Integer.MAX_VALUE}))).getOrThrow(AssertionError::new));
+        assertArrayEquals(new long[] {1, -2, Long.MIN_VALUE}, ops.getLongArray(reread(ops.createLongArray(new long[] {1, -2, Long.MIN_VALUE}))).getOrThrow(AssertionError::new));
+        assertArrayEquals(new int[0], ops.getIntArray(reread(ops.createIntArray(new int[0]))).getOrThrow(AssertionError::new));
+    }
+
+    @Test
+    public void truncatedValues() {
+        assertMalformed(bytes());
+        assertMalformed(bytes(BinaryValue.INT, 0, 0, 1));
+        assertMalformed(bytes(BinaryValue.STRING, 0, 0));
+        assertMalformed(bytes(BinaryValue.STRING, 0, 0, 0, 3, 'a', 'b'));
+
+        final ByteBuffer value = JsonOps.INSTANCE.convertTo(BinaryOps.INSTANCE, JsonParser.parseString("{\"a\":[1,2,3]}")).toByteBuffer();
+        for (int length = 0; length < value.remaining(); length++) {
+            assertMalformed(value.duplicate().limit(length));
+        }
+    }
+
+    @Test
+    public void negativeLengths() {
+        assertMalformed(bytes(BinaryValue.STRING, 0xff, 0xff, 0xff, 0xfe, 'a'));
+        assertMalformed(bytes(BinaryValue.BYTE_ARRAY, 0x80, 0, 0, 0));
+        assertMalformed(bytes(BinaryValue.LIST, 0xff, 0xff, 0xff, 0xff, 0, 0, 0, 0));
+        assertMalformed(bytes(BinaryValue.MAP, 0, 0, 0, 0, 0xff, 0xff, 0xff, 0xff));
+    }
+
+    @Test
+    public void overflowingLengths() {
+        // 0x40000001 ints are 4 bytes too many for an int, wrapping around to a 9 byte value
+        assertMalformed(bytes(BinaryValue.INT_ARRAY, 0x40, 0, 0, 1, 0, 0, 0, 0));
+        assertMalformed(bytes(BinaryValue.LONG_ARRAY, 0x20, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0));
+        assertMalformed(bytes(BinaryValue.STRING, 0x7f, 0xff, 0xff, 0xff));
+    }
+
+    @Test
+    public void containersMustHoldTheirCount() {
+        // a list of two bytes
+        final int[] list = {BinaryValue.LIST, 0, 0, 0, 4, 0, 0, 0, 2, BinaryValue.BYTE, 1, BinaryValue.BYTE, 2};
+        assertEquals(13, BinaryValue.read(bytes(list)).getOrThrow(AssertionError::new).size());
+
+        list[8] = 3;
+        assertMalformed(bytes(list));
+        list[8] = 1;
+        assertMalformed(bytes(list));
+        // an element running past the end of its list
+        list[8] = 2;
+        list[11] = BinaryValue.SHORT;
+        assertMalformed(bytes(list));
+        // a map needs a value for every key
+        assertMalformed(bytes(BinaryValue.MAP, 0, 0, 0, 2, 0, 0, 0, 1, BinaryValue.BYTE, 1));
+    }
+
+    @Test
+    public void unknownTags() {
+        assertMalformed(bytes(99));
+        assertMalformed(bytes(BinaryValue.LIST, 0, 0, 0, 1, 0, 0, 0, 1, -1));
+    }
+
+    @Test
+    public void malformedNestedValue() {
+        final BinaryValue inner = BinaryOps.INSTANCE.createString("abc");
+        final BinaryValue value = BinaryOps.INSTANCE.createMap(Map.of(BinaryOps.INSTANCE.createString("key"), BinaryOps.INSTANCE.createList(Stream.of(inner))));
+        final ByteBuffer buffer = ByteBuffer.allocate(value.size()).put(value.toByteBuffer()).flip();
+        // the string length is at the very end, right before its 3 bytes
+        buffer.putInt(value.size() - 7, 4);
+        assertMalformed(buffer);
+        buffer.putInt(value.size() - 7, -1);
+        assertMalformed(buffer);
+    }
+}
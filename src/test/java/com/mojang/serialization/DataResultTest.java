@@ -0,0 +1,148 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.mojang.datafixers.util.Unit;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataResultTest {
+    private static final BiFunction<Integer, Integer, Integer> SUM = Integer::sum;
+
+    private static String describe(final Lifecycle lifecycle) {
+        return lifecycle instanceof Lifecycle.Deprecated ? "Deprecated[" + ((Lifecycle.Deprecated) lifecycle).since() + "]" : lifecycle.toString();
+    }
+
+    private static void assertSameResult(final DataResult<?> expected, final DataResult<?> actual) {
+        assertEquals(expected.result(), actual.result());
+        assertEquals(expected.resultOrPartial(), actual.resultOrPartial());
+        assertEquals(expected.error().map(DataResult.Error::message), actual.error().map(DataResult.Error::message));
+        assertEquals(describe(expected.lifecycle()), describe(actual.lifecycle()));
+    }
+
+    /**
+     * apply2stable without its fast path.
+     */
+    private static <A, B, R> DataResult<R> slowApply2stable(final BiFunction<A, B, R> function, final DataResult<A> first, final DataResult<B> second) {
+        final DataResult<BiFunction<A, B, R>> f = DataResult.unbox(DataResult.instance().point(function)).setLifecycle(Lifecycle.stable());
+        return DataResult.unbox(DataResult.instance().ap2(f, first, second));
+    }
+
+    private static List<DataResult<Integer>> samples() {
+        return List.of(
+            DataResult.success(1),
+            DataResult.success(2, Lifecycle.stable()),
+            DataResult.success(3, Lifecycle.deprecated(4)),
+            DataResult.error(() -> "partial", 5),
+            DataResult.error(() -> "partial stable", 6, Lifecycle.stable()),
+            DataResult.error(() -> "no partial"),
+            DataResult.error(() -> "no partial deprecated", Lifecycle.deprecated(2))
+        );
+    }
+
+    @Test
+    public void apply2MatchesApplicative() {
+        for (final DataResult<Integer> first : samples()) {
+            for (final DataResult<Integer> second : samples()) {
+                assertSameResult(DataResult.unbox(DataResult.instance().apply2(SUM, first, second)), first.apply2(SUM, second));
+                assertSameResult(slowApply2stable(SUM, first, second), first.apply2stable(SUM, second));
+            }
+        }
+    }
+
+    @Test
+    public void ap2AndAp3FastPathsKeepLifecycles() {
+        final DataResult<BiFunction<Integer, Integer, Integer>> sum = DataResult.success(SUM, Lifecycle.stable());
+        final DataResult<Integer> ap2 = DataResult.unbox(DataResult.instance().ap2(sum, DataResult.success(1, Lifecycle.stable()), DataResult.success(2, Lifecycle.deprecated(3))));
+        assertEquals(Integer.valueOf(3), ap2.result().orElseThrow());
+        assertEquals("Deprecated[3]", describe(ap2.lifecycle()));
+
+        final DataResult<Integer> ap3 = DataResult.unbox(DataResult.instance().ap3(DataResult.success((a, b, c) -> a + b + c, Lifecycle.stable()),
+            DataResult.success(1, Lifecycle.stable()), DataResult.success(2, Lifecycle.stable()), DataResult.success(3, Lifecycle.stable())));
+        assertEquals(Integer.valueOf(6), ap3.result().orElseThrow());
+        assertSame(Lifecycle.stable(), ap3.lifecycle());
+    }
+
+    @Test
+    public void collectorMatchesChainedApply2stable() {
+        final List<DataResult<Integer>> samples = samples();
+        DataResult<Integer> chained = DataResult.success(0, Lifecycle.stable());
+        final DataResult.Collector collector = new DataResult.Collector(Lifecycle.stable());
+        for (final DataResult<Integer> sample : samples) {
+            chained = chained.apply2stable((a, b) -> a, sample);
+            collector.add(sample);
+        }
+
+        assertTrue(collector.hasErrors());
+        assertEquals("no partial deprecated; no partial; partial stable; partial", collector.buildWithoutValue().error().orElseThrow().message());
+        assertEquals(chained.error().orElseThrow().message(), collector.buildWithoutValue().error().orElseThrow().message());
+        assertEquals(describe(chained.lifecycle()), describe(collector.lifecycle()));
+    }
+
+    @Test
+    public void collectorResults() {
+        final DataResult.Collector clean = new DataResult.Collector(Lifecycle.stable());
+        assertTrue(clean.add(DataResult.success(1, Lifecycle.stable())));
+        assertTrue(clean.add(DataResult.success(2, Lifecycle.deprecated(5))));
+        assertTrue(clean.add(DataResult.success(3, Lifecycle.deprecated(2))));
+        assertFalse(clean.hasErrors());
+        final DataResult<String> success = clean.build("value");
+        assertEquals("value", success.result().orElseThrow());
+        assertEquals("Deprecated[2]", describe(success.lifecycle()));
+
+        final DataResult.Collector failed = new DataResult.Collector(Lifecycle.stable());
+        assertFalse(failed.add(DataResult.error(() -> "first", 1, Lifecycle.stable())));
+        assertTrue(failed.add(DataResult.success(2)));
+        assertFalse(failed.add(DataResult.error(() -> "second")));
+        final DataResult<String> partial = failed.build("value");
+        assertTrue(partial.result().isEmpty());
+        assertEquals("value", partial.resultOrPartial().orElseThrow());
+        assertEquals("second; first", partial.error().orElseThrow().message());
+        assertSame(Lifecycle.experimental(), partial.lifecycle());
+
+        final DataResult<String> withoutValue = failed.buildWithoutValue();
+        assertTrue(withoutValue.resultOrPartial().isEmpty());
+        assertEquals("second; first", withoutValue.error().orElseThrow().message());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void buildWithoutValueNeedsErrors() {
+        new DataResult.Collector(Lifecycle.stable()).buildWithoutValue();
+    }
+
+    @Test
+    public void commonSuccessesAreShared() {
+        assertSame(DataResult.success(Unit.INSTANCE), DataResult.success(Unit.INSTANCE));
+        assertSame(DataResult.success(true, Lifecycle.stable()), DataResult.success(true, Lifecycle.stable()));
+        assertSame(DataResult.success(-128), DataResult.success(-128));
+        assertSame(DataResult.success(127, Lifecycle.stable()), DataResult.success(127, Lifecycle.stable()));
+        assertSame(DataResult.success(false), DataResult.success("text").map(s -> false));
+        assertSame(DataResult.success(1, Lifecycle.stable()), DataResult.success(1).setLifecycle(Lifecycle.stable()));
+
+        // shared per lifecycle
+        assertNotSame(DataResult.success(true), DataResult.success(true, Lifecycle.stable()));
+        assertSame(Lifecycle.stable(), DataResult.success(true, Lifecycle.stable()).lifecycle());
+        assertSame(Lifecycle.experimental(), DataResult.success(true).lifecycle());
+        assertNotSame(DataResult.success(true, Lifecycle.deprecated(1)), DataResult.success(true, Lifecycle.deprecated(1)));
+        assertNotSame(DataResult.success(128), DataResult.success(128));
+    }
+
+    @Test
+    @SuppressWarnings({"deprecation", "removal"})
+    public void sharedSuccessesHoldTheCallersInstance() {
+        final Integer own = new Integer(5);
+        assertSame(own, DataResult.success(own).result().orElseThrow());
+        assertSame(own, DataResult.success(own, Lifecycle.stable()).result().orElseThrow());
+        assertSame(own, DataResult.success(1).map(i -> own).result().orElseThrow());
+        assertSame(own, DataResult.error(() -> "error", own).promotePartial(message -> {}).result().orElseThrow());
+        assertSame(own, DataResult.success(own).apply2stable((a, b) -> a, DataResult.success(1)).result().orElseThrow());
+    }
+}
@@ -0,0 +1,73 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the primitive array accessors of every ops against the list representation they stand for.
+ */
+public class DynamicOpsTest {
+    private static final List<DynamicOps<?>> OPS = List.of(JsonOps.INSTANCE, JavaOps.INSTANCE, BinaryOps.INSTANCE);
+
+    private static final byte[] BYTES = {0, 1, -1, Byte.MIN_VALUE, Byte.MAX_VALUE};
+    private static final int[] INTS = {0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+    private static final long[] LONGS = {0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+
+    private static <T> JsonElement json(final DynamicOps<T> ops, final T value) {
+        return ops.convertTo(JsonOps.INSTANCE, value);
+    }
+
+    private static <T> void checkArrays(final DynamicOps<T> ops) {
+        final String name = ops.toString();
+        assertArrayEquals(name, BYTES, ops.getByteArray(ops.createByteArray(BYTES)).getOrThrow());
+        assertArrayEquals(name, INTS, ops.getIntArray(ops.createIntArray(INTS)).getOrThrow());
+        assertArrayEquals(name, LONGS, ops.getLongArray(ops.createLongArray(LONGS)).getOrThrow());
+
+        // the arrays hold the same values as the lists
+        assertEquals(name, json(ops, ops.createByteList(ByteBuffer.wrap(BYTES))), json(ops, ops.createByteArray(BYTES)));
+        assertEquals(name, json(ops, ops.createIntList(IntStream.of(INTS))), json(ops, ops.createIntArray(INTS)));
+        assertEquals(name, json(ops, ops.createLongList(LongStream.of(LONGS))), json(ops, ops.createLongArray(LONGS)));
+
+        // generic lists of numbers are read like the stream accessors do, which JavaOps does not accept
+        final T list = ops.createList(Stream.of(ops.createInt(1), ops.createLong(2), ops.createByte((byte) 3)));
+        final T mixed = ops.createList(Stream.of(ops.createInt(1), ops.createString("two")));
+        for (final T value : List.of(list, mixed, ops.createString("not a list"))) {
+            assertEquals(name, ops.getByteBuffer(value).result().map(ByteBuffer::array).map(Arrays::toString), ops.getByteArray(value).result().map(Arrays::toString));
+            assertEquals(name, ops.getIntStream(value).result().map(IntStream::toArray).map(Arrays::toString), ops.getIntArray(value).result().map(Arrays::toString));
+            assertEquals(name, ops.getLongStream(value).result().map(LongStream::toArray).map(Arrays::toString), ops.getLongArray(value).result().map(Arrays::toString));
+        }
+        assertTrue(name, ops.getIntArray(mixed).error().isPresent());
+
+        assertArrayEquals(name, INTS, Codec.INT_STREAM.parse(ops, Codec.INT_STREAM.encodeStart(ops, IntStream.of(INTS)).getOrThrow()).getOrThrow().toArray());
+        assertArrayEquals(name, LONGS, Codec.LONG_STREAM.parse(ops, Codec.LONG_STREAM.encodeStart(ops, LongStream.of(LONGS)).getOrThrow()).getOrThrow().toArray());
+    }
+
+    @Test
+    public void arraysMatchLists() {
+        for (final DynamicOps<?> ops : OPS) {
+            checkArrays(ops);
+        }
+    }
+
+    @Test
+    public void jsonArrays() {
+        assertArrayEquals(new int[] {1, 2, 3}, JsonOps.INSTANCE.getIntArray(JsonParser.parseString("[1,2,3]")).getOrThrow());
+        assertArrayEquals(new long[] {1, 2, 3}, JsonOps.INSTANCE.getLongArray(JsonParser.parseString("[1.5,2,3]")).getOrThrow());
+        assertTrue(JsonOps.INSTANCE.getIntArray(JsonParser.parseString("[1,[2]]")).error().isPresent());
+        assertEquals(JsonParser.parseString("[1,2,3]"), JsonOps.INSTANCE.createIntArray(new int[] {1, 2, 3}));
+    }
+}
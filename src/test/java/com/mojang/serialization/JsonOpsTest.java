@@ -0,0 +1,81 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.datafixers.util.Pair;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class JsonOpsTest {
+    private static final Codec<Map<String, List<Integer>>> CODEC = Codec.unboundedMap(Codec.STRING, Codec.INT.listOf());
+
+    private static JsonElement build(final JsonOps ops, final int size) {
+        JsonElement map = ops.emptyMap();
+        for (int i = 0; i < size; i++) {
+            JsonElement list = ops.emptyList();
+            for (int j = 0; j <= i; j++) {
+                list = ops.mergeToList(list, ops.createInt(j)).getOrThrow();
+            }
+            map = ops.mergeToMap(map, ops.createString("k" + i), list).getOrThrow();
+        }
+        return map;
+    }
+
+    @Test
+    public void inPlaceMergesModifyTheirInput() {
+        final JsonArray list = new JsonArray();
+        assertSame(list, JsonOps.IN_PLACE.mergeToList(list, JsonOps.IN_PLACE.createInt(1)).getOrThrow());
+        assertSame(list, JsonOps.IN_PLACE.mergeToList(list, List.of(JsonOps.IN_PLACE.createInt(2))).getOrThrow());
+        assertEquals(JsonParser.parseString("[1,2]"), list);
+
+        final JsonObject map = new JsonObject();
+        assertSame(map, JsonOps.IN_PLACE.mergeToMap(map, JsonOps.IN_PLACE.createString("a"), list).getOrThrow());
+        assertSame(map, JsonOps.IN_PLACE.mergeToMap(map, Map.of(JsonOps.IN_PLACE.createString("b"), JsonOps.IN_PLACE.createInt(3))).getOrThrow());
+        assertSame(map, JsonOps.IN_PLACE.remove(map, "a"));
+        assertEquals(JsonParser.parseString("{\"b\":3}"), map);
+    }
+
+    @Test
+    public void copyingMergesLeaveTheirInput() {
+        final JsonElement list = JsonParser.parseString("[1]");
+        final JsonElement merged = JsonOps.INSTANCE.mergeToList(list, JsonOps.INSTANCE.createInt(2)).getOrThrow();
+        assertNotSame(list, merged);
+        assertEquals(JsonParser.parseString("[1]"), list);
+
+        final JsonElement map = JsonParser.parseString("{\"a\":1}");
+        JsonOps.INSTANCE.mergeToMap(map, JsonOps.INSTANCE.createString("b"), JsonOps.INSTANCE.createInt(2)).getOrThrow();
+        JsonOps.INSTANCE.remove(map, "a");
+        assertEquals(JsonParser.parseString("{\"a\":1}"), map);
+    }
+
+    @Test
+    public void inPlaceResultsMatchCopies() {
+        assertEquals(build(JsonOps.INSTANCE, 30), build(JsonOps.IN_PLACE, 30));
+
+        final Map<String, List<Integer>> value = Map.of("a", List.of(1, 2), "b", List.of(), "c", List.of(3));
+        assertEquals(CODEC.encodeStart(JsonOps.INSTANCE, value).getOrThrow(), CODEC.encodeStart(JsonOps.IN_PLACE, value).getOrThrow());
+        assertEquals(CODEC.encodeStart(JsonOps.COMPRESSED, value).getOrThrow(), CODEC.encodeStart(JsonOps.COMPRESSED_IN_PLACE, value).getOrThrow());
+        assertEquals(value, CODEC.parse(JsonOps.IN_PLACE, CODEC.encodeStart(JsonOps.IN_PLACE, value).getOrThrow()).getOrThrow());
+
+        final JsonElement built = JsonOps.IN_PLACE.createMap(Stream.of(Pair.of(JsonOps.IN_PLACE.createString("a"), JsonOps.IN_PLACE.createInt(1))));
+        assertEquals(JsonParser.parseString("{\"a\":1}"), built);
+    }
+
+    @Test
+    public void buildersReportTheirOps() {
+        assertSame(JsonOps.IN_PLACE, JsonOps.IN_PLACE.listBuilder().ops());
+        assertSame(JsonOps.COMPRESSED, JsonOps.COMPRESSED.listBuilder().ops());
+        assertSame(JsonOps.IN_PLACE, JsonOps.IN_PLACE.mapBuilder().ops());
+    }
+}
@@ -0,0 +1,88 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonStreamsTest {
+    private static final String RECORDS = "[{\"a\":1,\"b\":[true,null,\"x\"]},2.5,\"text\",{}]";
+
+    private static JsonReader reader(final String json) {
+        return new JsonReader(new StringReader(json));
+    }
+
+    private static String transform(final String json, final UnaryOperator<JsonElement> function) throws IOException {
+        final StringWriter out = new StringWriter();
+        try (final JsonWriter writer = new JsonWriter(out)) {
+            JsonStreams.transform(reader(json), writer, function);
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void readsElementsAndEntriesInOrder() throws IOException {
+        final List<JsonElement> elements = new ArrayList<>();
+        JsonStreams.forEachElement(reader(RECORDS), elements::add);
+        final List<JsonElement> expected = new ArrayList<>();
+        JsonParser.parseString(RECORDS).getAsJsonArray().forEach(expected::add);
+        assertEquals(expected, elements);
+
+        final List<String> entries = new ArrayList<>();
+        JsonStreams.forEachEntry(reader("{\"z\":1,\"a\":[2],\"m\":{\"n\":3}}"), (name, element) -> entries.add(name + "=" + element));
+        assertEquals(List.of("z=1", "a=[2]", "m={\"n\":3}"), entries);
+    }
+
+    @Test
+    public void writesLikeGson() throws IOException {
+        final StringWriter out = new StringWriter();
+        JsonStreams.write(new JsonWriter(out), JsonParser.parseString(RECORDS));
+        assertEquals(JsonParser.parseString(RECORDS).toString(), out.toString());
+    }
+
+    @Test
+    public void transformsEachRecord() throws IOException {
+        final UnaryOperator<JsonElement> wrap = element -> {
+            final JsonObject wrapped = new JsonObject();
+            wrapped.add("v", element);
+            return wrapped;
+        };
+        assertEquals("[{\"v\":1},{\"v\":{\"a\":2}}]", transform("[1,{\"a\":2}]", wrap));
+        assertEquals("{\"x\":{\"v\":1},\"y\":{\"v\":[]}}", transform("{\"x\":1,\"y\":[]}", wrap));
+        assertEquals("{\"v\":\"top\"}", transform("\"top\"", wrap));
+        assertEquals("[]", transform("[]", wrap));
+    }
+
+    @Test
+    public void decodesAndEncodesWithCodecs() throws IOException {
+        final List<DataResult<Integer>> decoded = new ArrayList<>();
+        JsonStreams.decodeElements(reader("[1,\"two\",3]"), Codec.INT, decoded::add);
+        assertEquals(3, decoded.size());
+        assertEquals(Integer.valueOf(1), decoded.get(0).getOrThrow());
+        assertTrue(decoded.get(1).error().isPresent());
+        assertEquals(Integer.valueOf(3), decoded.get(2).getOrThrow());
+
+        final Codec<Integer> positive = Codec.INT.flatComapMap(i -> i, i -> i < 0 ? DataResult.error(() -> "negative " + i) : DataResult.success(i));
+        final StringWriter out = new StringWriter();
+        final List<String> errors = new ArrayList<>();
+        JsonStreams.encodeElements(new JsonWriter(out), positive, List.of(1, -2, 3).iterator(), errors::add);
+        assertEquals("[1,3]", out.toString());
+        assertEquals(List.of("negative -2"), errors);
+        assertEquals(new JsonPrimitive(3), JsonParser.parseString(out.toString()).getAsJsonArray().get(1));
+    }
+}
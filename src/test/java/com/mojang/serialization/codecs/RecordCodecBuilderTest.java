@@ -0,0 +1,268 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.codecs;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.mojang.datafixers.util.Function16;
+import com.mojang.datafixers.util.Function5;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JavaOps;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.KeyCompressor;
+import com.mojang.serialization.Lifecycle;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.MapLike;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RecordCodecBuilderTest {
+    private static Codec<List<Integer>> wide() {
+        return RecordCodecBuilder.create(i -> i.group(
+            Codec.INT.fieldOf("f0").forGetter(l -> l.get(0)),
+            Codec.INT.fieldOf("f1").forGetter(l -> l.get(1)),
+            Codec.INT.fieldOf("f2").forGetter(l -> l.get(2)),
+            Codec.INT.fieldOf("f3").forGetter(l -> l.get(3)),
+            Codec.INT.fieldOf("f4").forGetter(l -> l.get(4)),
+            Codec.INT.fieldOf("f5").forGetter(l -> l.get(5)),
+            Codec.INT.fieldOf("f6").forGetter(l -> l.get(6)),
+            Codec.INT.fieldOf("f7").forGetter(l -> l.get(7)),
+            Codec.INT.fieldOf("f8").forGetter(l -> l.get(8))
+        ).apply(i, List::of));
+    }
+
+    private static JsonObject wideJson(final int offset) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("unknown", "ignored");
+        // not in field order, so that indexing has to find every field
+        for (int f = 8; f >= 0; f--) {
+            json.addProperty("f" + f, f + offset);
+        }
+        return json;
+    }
+
+    @Test
+    public void wideRecordsDecodeThroughTheFieldTable() {
+        final Codec<List<Integer>> codec = wide();
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), codec.parse(JsonOps.INSTANCE, wideJson(0)).result().orElseThrow());
+        assertEquals(List.of(10, 11, 12, 13, 14, 15, 16, 17, 18), codec.parse(JsonOps.INSTANCE, wideJson(10)).result().orElseThrow());
+
+        final JsonElement compressed = codec.encodeStart(JsonOps.COMPRESSED, List.of(8, 7, 6, 5, 4, 3, 2, 1, 0)).result().orElseThrow();
+        assertEquals(List.of(8, 7, 6, 5, 4, 3, 2, 1, 0), codec.parse(JsonOps.COMPRESSED, compressed).result().orElseThrow());
+        // switching back to the first ops still uses the right table
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), codec.parse(JsonOps.INSTANCE, wideJson(0)).result().orElseThrow());
+    }
+
+    private static WeakReference<DynamicOps<?>> decodeWithNewOps(final Codec<List<Integer>> codec) {
+        final JsonOps ops = new JsonOps(false) {};
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), codec.parse(ops, wideJson(0)).result().orElseThrow());
+        return new WeakReference<>(ops);
+    }
+
+    private static WeakReference<DynamicOps<?>> roundTripCompressedWithNewOps(final Codec<List<Integer>> codec) {
+        final JsonOps ops = new JsonOps(true) {};
+        final JsonElement compressed = codec.encodeStart(ops, List.of(8, 7, 6, 5, 4, 3, 2, 1, 0)).result().orElseThrow();
+        assertEquals(List.of(8, 7, 6, 5, 4, 3, 2, 1, 0), codec.parse(ops, compressed).result().orElseThrow());
+        return new WeakReference<>(ops);
+    }
+
+    private static void assertCollected(final WeakReference<DynamicOps<?>> ops) throws InterruptedException {
+        for (int i = 0; i < 20 && ops.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("the ops is still reachable from the codec", ops.get());
+    }
+
+    @Test
+    public void doesNotRetainOps() throws InterruptedException {
+        final Codec<List<Integer>> codec = wide();
+        assertCollected(decodeWithNewOps(codec));
+    }
+
+    @Test
+    public void doesNotRetainCompressedOps() throws InterruptedException {
+        final Codec<List<Integer>> codec = wide();
+        assertCollected(roundTripCompressedWithNewOps(codec));
+        // the compressor of the shared ops is still found after the collected one
+        final JsonElement compressed = codec.encodeStart(JsonOps.COMPRESSED, List.of(1, 2, 3, 4, 5, 6, 7, 8, 9)).result().orElseThrow();
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), codec.parse(JsonOps.COMPRESSED, compressed).result().orElseThrow());
+    }
+
+    private static KeyCompressor<JsonElement> compressorOfNewOps(final List<WeakReference<DynamicOps<?>>> opsRef) {
+        final JsonOps ops = new JsonOps(true) {};
+        opsRef.add(new WeakReference<>(ops));
+        return new KeyCompressor<>(ops, Stream.of("a", "b").map(ops::createString));
+    }
+
+    @Test
+    public void unknownKeysCompressTheSameAfterTheOpsIsCollected() throws InterruptedException {
+        final List<WeakReference<DynamicOps<?>>> ops = new ArrayList<>();
+        final KeyCompressor<JsonElement> compressor = compressorOfNewOps(ops);
+        final int unknown = compressor.compress(new JsonPrimitive("c"));
+        assertEquals(unknown, compressor.compress("c"));
+        assertCollected(ops.get(0));
+        assertEquals(1, compressor.compress("b"));
+        assertEquals(unknown, compressor.compress("c"));
+    }
+
+    /**
+     * Negative values decode to a partial result, 999 fails without one and 7 is deprecated.
+     */
+    private static final Codec<Integer> FIELD = Codec.INT.withLifecycle(Lifecycle.stable()).flatXmap(value -> {
+        if (value < 0) {
+            return DataResult.error(() -> "negative " + value, -value);
+        }
+        if (value == 999) {
+            return DataResult.error(() -> "unreadable " + value);
+        }
+        return DataResult.success(value, value == 7 ? Lifecycle.deprecated(1) : Lifecycle.stable());
+    }, DataResult::success);
+
+    private static MapCodec<Integer> field(final int index) {
+        return FIELD.fieldOf("f" + index);
+    }
+
+    private static final BiFunction<Integer, Integer, List<Integer>> LIST2 = List::of;
+    private static final Function5<Integer, Integer, Integer, Integer, Integer, List<Integer>> LIST5 = List::of;
+    private static final Function16<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, List<Integer>> LIST16 =
+        (a, b, c, d, e, f, g, h, i, j, k, l, m, n, o, p) -> List.of(a, b, c, d, e, f, g, h, i, j, k, l, m, n, o, p);
+
+    // stable constructors, so that the lifecycles of the fields show in the result
+    private static final MapCodec<List<Integer>> TWO = RecordCodecBuilder.mapCodec(i -> i.ap2(i.stable(LIST2),
+        field(0).forGetter(l -> l.get(0)),
+        field(1).forGetter(l -> l.get(1))
+    ));
+
+    private static final MapCodec<List<Integer>> FIVE = RecordCodecBuilder.mapCodec(i -> i.ap5(i.stable(LIST5),
+        field(0).forGetter(l -> l.get(0)),
+        field(1).forGetter(l -> l.get(1)),
+        field(2).forGetter(l -> l.get(2)),
+        field(3).forGetter(l -> l.get(3)),
+        field(4).forGetter(l -> l.get(4))
+    ));
+
+    private static final MapCodec<List<Integer>> SIXTEEN = RecordCodecBuilder.mapCodec(i -> i.ap16(i.stable(LIST16),
+        field(0).forGetter(l -> l.get(0)),
+        field(1).forGetter(l -> l.get(1)),
+        field(2).forGetter(l -> l.get(2)),
+        field(3).forGetter(l -> l.get(3)),
+        field(4).forGetter(l -> l.get(4)),
+        field(5).forGetter(l -> l.get(5)),
+        field(6).forGetter(l -> l.get(6)),
+        field(7).forGetter(l -> l.get(7)),
+        field(8).forGetter(l -> l.get(8)),
+        field(9).forGetter(l -> l.get(9)),
+        field(10).forGetter(l -> l.get(10)),
+        field(11).forGetter(l -> l.get(11)),
+        field(12).forGetter(l -> l.get(12)),
+        field(13).forGetter(l -> l.get(13)),
+        field(14).forGetter(l -> l.get(14)),
+        field(15).forGetter(l -> l.get(15))
+    ));
+
+    /**
+     * The fields decoded one by one and combined with the nested {@link DataResult} applicative, as records decoded
+     * before they were flattened.
+     */
+    private static <T> DataResult<List<Integer>> nested(final DynamicOps<T> ops, final MapLike<T> input, final int size) {
+        final List<DataResult<Integer>> r = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            r.add(field(i).decode(ops, input));
+        }
+        final DataResult.Instance instance = DataResult.instance();
+        switch (size) {
+            case 2:
+                return DataResult.unbox(instance.ap2(DataResult.success(LIST2, Lifecycle.stable()), r.get(0), r.get(1)));
+            case 5:
+                return DataResult.unbox(instance.ap5(DataResult.success(LIST5, Lifecycle.stable()), r.get(0), r.get(1), r.get(2), r.get(3), r.get(4)));
+            case 16:
+                return DataResult.unbox(instance.ap16(DataResult.success(LIST16, Lifecycle.stable()), r.get(0), r.get(1), r.get(2), r.get(3), r.get(4), r.get(5), r.get(6), r.get(7), r.get(8), r.get(9), r.get(10), r.get(11), r.get(12), r.get(13), r.get(14), r.get(15)));
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static void assertSameResult(final DataResult<List<Integer>> expected, final DataResult<List<Integer>> actual) {
+        assertEquals(expected.result(), actual.result());
+        assertEquals(expected.resultOrPartial(), actual.resultOrPartial());
+        assertEquals(expected.error().map(DataResult.Error::message), actual.error().map(DataResult.Error::message));
+        assertEquals(describe(expected.lifecycle()), describe(actual.lifecycle()));
+    }
+
+    private static String describe(final Lifecycle lifecycle) {
+        return lifecycle instanceof Lifecycle.Deprecated ? "Deprecated[" + ((Lifecycle.Deprecated) lifecycle).since() + "]" : lifecycle.toString();
+    }
+
+    private static void assertMatchesNested(final MapCodec<List<Integer>> codec, final int size, final Map<Integer, Integer> overrides) {
+        final Map<String, Object> java = new HashMap<>();
+        final JsonObject json = new JsonObject();
+        for (int i = 0; i < size; i++) {
+            final int value = overrides.getOrDefault(i, i);
+            java.put("f" + i, value);
+            json.addProperty("f" + i, value);
+        }
+
+        final MapLike<Object> javaInput = JavaOps.INSTANCE.getMap(java).getOrThrow(AssertionError::new);
+        assertSameResult(nested(JavaOps.INSTANCE, javaInput, size), codec.decode(JavaOps.INSTANCE, javaInput));
+        final MapLike<JsonElement> jsonInput = JsonOps.INSTANCE.getMap(json).getOrThrow(AssertionError::new);
+        assertSameResult(nested(JsonOps.INSTANCE, jsonInput, size), codec.decode(JsonOps.INSTANCE, jsonInput));
+    }
+
+    private static void assertAllCasesMatchNested(final MapCodec<List<Integer>> codec, final int size) {
+        final int last = size - 1;
+        assertMatchesNested(codec, size, Map.of());
+        assertMatchesNested(codec, size, Map.of(0, -5));
+        assertMatchesNested(codec, size, Map.of(last, 999));
+        assertMatchesNested(codec, size, Map.of(0, -1, last, -2));
+        assertMatchesNested(codec, size, Map.of(0, 999, last, -3));
+        assertMatchesNested(codec, size, Map.of(0, 7));
+        assertMatchesNested(codec, size, Map.of(0, 7, last, -4));
+        assertMatchesNested(codec, size, Map.of(0, 999, last, 999));
+    }
+
+    @Test
+    public void flatDecodeOfTwoFields() {
+        assertAllCasesMatchNested(TWO, 2);
+        final DataResult<List<Integer>> result = TWO.decode(JavaOps.INSTANCE, JavaOps.INSTANCE.getMap(Map.of("f0", -1, "f1", -2)).getOrThrow(AssertionError::new));
+        assertEquals(List.of(1, 2), result.resultOrPartial().orElseThrow());
+        // messages of later fields come first, like nested calls report them
+        assertEquals("negative -2; negative -1", result.error().orElseThrow().message());
+    }
+
+    @Test
+    public void flatDecodeOfFiveFields() {
+        assertAllCasesMatchNested(FIVE, 5);
+        final DataResult<List<Integer>> result = FIVE.decode(JavaOps.INSTANCE, JavaOps.INSTANCE.getMap(Map.of("f0", 7, "f1", 1, "f2", 2, "f3", 3, "f4", 4)).getOrThrow(AssertionError::new));
+        assertEquals(List.of(7, 1, 2, 3, 4), result.result().orElseThrow());
+        assertTrue(result.lifecycle() instanceof Lifecycle.Deprecated);
+    }
+
+    @Test
+    public void flatDecodeOfSixteenFields() {
+        assertAllCasesMatchNested(SIXTEEN, 16);
+        final Map<String, Object> input = new HashMap<>();
+        for (int i = 0; i < 16; i++) {
+            input.put("f" + i, i);
+        }
+        input.put("f9", 999);
+        input.remove("f3");
+        final DataResult<List<Integer>> result = SIXTEEN.decode(JavaOps.INSTANCE, JavaOps.INSTANCE.getMap(input).getOrThrow(AssertionError::new));
+        assertTrue(result.resultOrPartial().isEmpty());
+        assertEquals(nested(JavaOps.INSTANCE, JavaOps.INSTANCE.getMap(input).getOrThrow(AssertionError::new), 16).error().orElseThrow().message(), result.error().orElseThrow().message());
+    }
+}